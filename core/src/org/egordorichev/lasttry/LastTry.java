@@ -16,6 +16,8 @@ import org.egordorichev.lasttry.entity.entities.ui.console.UiConsole;
 import org.egordorichev.lasttry.entity.entities.ui.inventory.UiInventory;
 import org.egordorichev.lasttry.entity.entities.world.ClockComponent;
 import org.egordorichev.lasttry.entity.entities.world.World;
+import org.egordorichev.lasttry.entity.entities.world.WorldIO;
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkIO;
 import org.egordorichev.lasttry.game.state.InGameState;
 import org.egordorichev.lasttry.game.state.State;
 import org.egordorichev.lasttry.graphics.Display;
@@ -117,6 +119,7 @@ public class LastTry extends Game {
 		float delta = Gdx.graphics.getDeltaTime();
 		this.state.update(delta);
 
+		CameraSystem.instance.interpolate();
 		Graphics.batch.setProjectionMatrix(CameraSystem.instance.get("main").getComponent(CameraComponent.class).camera.combined);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
@@ -141,6 +144,12 @@ public class LastTry extends Game {
 	@Override
 	public void dispose() {
 		super.dispose();
-		Engine.sendMessage("save");
+
+		if (World.instance != null) {
+			// Can't wait for the save system, the game is closing
+			WorldIO.write(World.instance);
+		}
+
+		ChunkIO.closeRegions();
 	}
 }
\ No newline at end of file
@@ -1,15 +1,37 @@
 package org.egordorichev.lasttry.core.io;
 
-import java.io.*;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
- * A wrapper for DataInputStream.
+ * Reads data, written by FileWriter, from a ByteBuffer.
+ * Files are read with one FileChannel call and then decoded
+ * straight from the buffer, without going through stream layers.
  */
 public class FileReader implements AutoCloseable {
-	private DataInputStream stream;
+	private ByteBuffer buffer;
 
-	public FileReader(String path) throws FileNotFoundException {
-		this.stream = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 32768));
+	public FileReader(String path) throws IOException {
+		try (FileInputStream input = new FileInputStream(path)) {
+			FileChannel channel = input.getChannel();
+			this.buffer = ByteBuffer.allocate((int) channel.size());
+
+			while (this.buffer.hasRemaining()) {
+				if (channel.read(this.buffer) == -1) {
+					break;
+				}
+			}
+
+			this.buffer.flip();
+		}
+	}
+
+	public FileReader(ByteBuffer buffer) {
+		this.buffer = buffer;
 	}
 
 	/**
@@ -19,7 +41,11 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public byte readByte() throws IOException {
-		return this.stream.readByte();
+		try {
+			return this.buffer.get();
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
+		}
 	}
 
 	/**
@@ -29,7 +55,7 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public boolean readBoolean() throws IOException {
-		return this.stream.readBoolean();
+		return this.readByte() != 0;
 	}
 
 	/**
@@ -39,7 +65,11 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public short readInt16() throws IOException {
-		return this.stream.readShort();
+		try {
+			return this.buffer.getShort();
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
+		}
 	}
 
 	/**
@@ -49,7 +79,32 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public int readInt32() throws IOException {
-		return this.stream.readInt();
+		try {
+			return this.buffer.getInt();
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
+		}
+	}
+
+	/**
+	 * Reads a varint from file
+	 *
+	 * @return An int
+	 * @throws IOException If something went wrong
+	 */
+	public int readVarInt() throws IOException {
+		int value = 0;
+
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte part = this.readByte();
+			value |= (part & 0x7F) << shift;
+
+			if ((part & 0x80) == 0) {
+				return value;
+			}
+		}
+
+		throw new IOException("Varint is too long");
 	}
 
 	/**
@@ -59,7 +114,7 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public String readString() throws IOException {
-		byte length = this.stream.readByte();
+		byte length = this.readByte();
 
 		if (length == 0) {
 			return null;
@@ -67,8 +122,12 @@ public class FileReader implements AutoCloseable {
 
 		StringBuilder result = new StringBuilder();
 
-		for (int i = 0; i < length; i++) {
-			result.append(this.stream.readChar());
+		try {
+			for (int i = 0; i < length; i++) {
+				result.append(this.buffer.getChar());
+			}
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
 		}
 
 		return result.toString();
@@ -81,7 +140,11 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public double readDouble() throws IOException {
-		return this.stream.readDouble();
+		try {
+			return this.buffer.getDouble();
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
+		}
 	}
 
 	/**
@@ -91,12 +154,16 @@ public class FileReader implements AutoCloseable {
 	 * @throws IOException If something went wrong
 	 */
 	public float readFloat() throws IOException {
-		return this.stream.readFloat();
+		try {
+			return this.buffer.getFloat();
+		} catch (BufferUnderflowException exception) {
+			throw new EOFException();
+		}
 	}
 
 
 	@Override
 	public void close() throws IOException {
-		this.stream.close();
+		this.buffer = null;
 	}
 }
\ No newline at end of file
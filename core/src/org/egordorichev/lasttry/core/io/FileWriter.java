@@ -4,6 +4,7 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * A wrapper for DataOutputStream.
@@ -15,6 +16,10 @@ public class FileWriter implements AutoCloseable {
 		this.stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 32768));
 	}
 
+	public FileWriter(OutputStream stream) {
+		this.stream = new DataOutputStream(stream);
+	}
+
 	/**
 	 * Writes given byte to file
 	 *
@@ -55,6 +60,22 @@ public class FileWriter implements AutoCloseable {
 		this.stream.writeInt(value);
 	}
 
+	/**
+	 * Writes given int as a varint (7 bits per byte),
+	 * small values take only one byte
+	 *
+	 * @param value Int to write, treated as unsigned
+	 * @throws IOException If something went wrong
+	 */
+	public void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			this.stream.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		this.stream.writeByte(value);
+	}
+
 	/**
 	 * Writes given string to file
 	 *
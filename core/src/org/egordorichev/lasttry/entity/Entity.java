@@ -1,24 +1,39 @@
 package org.egordorichev.lasttry.entity;
 
+import com.badlogic.gdx.utils.Pool;
 import org.egordorichev.lasttry.entity.component.Component;
+import org.egordorichev.lasttry.entity.component.ComponentTypes;
 import org.egordorichev.lasttry.entity.engine.Engine;
 import org.egordorichev.lasttry.util.log.Log;
 
-import java.lang.reflect.Constructor;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * The base class for in-game entities
  */
-public class Entity {
+public class Entity implements Pool.Poolable {
 	/**
-	 * Registered components
+	 * Registered components by type ID
 	 */
-	protected final HashMap<Class<? extends Component>, Component> components = new HashMap<>();
+	protected Component[] components = new Component[ComponentTypes.getCount()];
+	/**
+	 * Type IDs of registered components
+	 */
+	protected final BitSet signature = new BitSet();
 	/**
 	 * Entity on-screen-z coordinate
 	 */
 	protected byte zIndex = 0;
+	/**
+	 * Pool, that owns this entity, or null
+	 */
+	EntityPool<?> pool;
+	/**
+	 * Entity is waiting in its pool
+	 */
+	boolean pooled;
 
 	@SuppressWarnings("all")
 	public Entity(Class<? extends Component>... components) {
@@ -55,8 +70,7 @@ public class Entity {
 			Component instance = null;
 
 			try {
-				Constructor<?> constructor = c.getConstructor();
-				instance = (Component) constructor.newInstance();
+				instance = ComponentTypes.create(c);
 				instance.setEntity(this);
 				instance.init();
 
@@ -68,12 +82,33 @@ public class Entity {
 				Log.error("Failed to create a component " + c.getName());
 			}
 
-			this.components.put(c, instance);
+			this.setComponent(c, instance);
 		}
 
+		Engine.updateFamilies(this);
 		return first;
 	}
 
+	/**
+	 * Sets component instance for given type
+	 * Does not update engine families
+	 *
+	 * @param type
+	 *            Component class
+	 * @param component
+	 *            Component instance or null
+	 */
+	protected void setComponent(Class<? extends Component> type, Component component) {
+		int id = ComponentTypes.getId(type);
+
+		if (id >= this.components.length) {
+			this.components = Arrays.copyOf(this.components, Math.max(id + 1, ComponentTypes.getCount()));
+		}
+
+		this.components[id] = component;
+		this.signature.set(id, component != null);
+	}
+
 	/**
 	 * Removes a component
 	 *
@@ -81,14 +116,17 @@ public class Entity {
 	 *            Component class to remove
 	 */
 	public void removeComponent(Class<? extends Component> component) {
-		this.components.remove(component);
+		this.setComponent(component, null);
+		Engine.updateFamilies(this);
 	}
 
 	/**
 	 * Removes all components from entity
 	 */
 	public void removeAll() {
-		this.components.clear();
+		Arrays.fill(this.components, null);
+		this.signature.clear();
+		Engine.updateFamilies(this);
 	}
 
 	/**
@@ -99,7 +137,24 @@ public class Entity {
 	 * @return Entity has a component
 	 */
 	public boolean hasComponent(Class<? extends Component> component) {
-		return this.components.containsKey(component);
+		return this.signature.get(ComponentTypes.getId(component));
+	}
+
+	/**
+	 * Checks, if the entity has all components from the mask
+	 *
+	 * @param mask
+	 *            Component type IDs
+	 * @return Entity has all of them
+	 */
+	public boolean hasComponents(BitSet mask) {
+		for (int id = mask.nextSetBit(0); id >= 0; id = mask.nextSetBit(id + 1)) {
+			if (!this.signature.get(id)) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	/**
@@ -110,40 +165,74 @@ public class Entity {
 	 * @return Component or null
 	 */
 	public <T extends Component> T getComponent(Class<T> component) {
-		return (T) this.components.get(component);
+		return this.getComponent(ComponentTypes.getId(component));
 	}
 
 	/**
-	 * Sets entity z-index. Does not update engine's Z-indices.
-	 * 
-	 * @param zIndex
-	 *            New z-index
+	 * Returns component with given type ID
+	 * Hot loops can look the ID up once with ComponentTypes.getId()
+	 *
+	 * @param id
+	 *            Component type ID
+	 * @return Component or null
 	 */
-	public void setZIndex(byte zIndex) {
-		setZIndex(zIndex, false);
+	@SuppressWarnings("unchecked")
+	public <T extends Component> T getComponent(int id) {
+		if (id >= this.components.length) {
+			return null;
+		}
+
+		return (T) this.components[id];
+	}
+
+	/**
+	 * Resets all components, before the entity goes back to its pool
+	 */
+	@Override
+	public void reset() {
+		for (Component component : this.components) {
+			if (component != null) {
+				component.reset();
+			}
+		}
 	}
 
 	/**
-	 * Set entity z-index and have the engine recalculate Z-indices after the
-	 * update if desired.
+	 * Returns the entity to its pool, if it came from one
+	 * The entity must not be used after that
+	 */
+	public void release() {
+		if (this.pool != null) {
+			this.pool.release(this);
+		}
+	}
+
+	/**
+	 * Sets entity z-index, the engine keeps the render order
 	 * 
 	 * @param zIndex
 	 *            New z-index
-	 * @param refreshZIndices
-	 *            Option to recalculate engine Z-indices
 	 */
-	public void setZIndex(byte zIndex, boolean refreshZIndices) {
+	public void setZIndex(byte zIndex) {
+		byte old = this.zIndex;
+
 		this.zIndex = zIndex;
-		if (refreshZIndices) {
-			Engine.recalculateZIndices();
-		}
+		Engine.updateZIndex(this, old);
 	}
 
 	/**
 	 * @return All components
 	 */
-	public HashMap<Class<? extends Component>, Component> getComponents() {
-		return this.components;
+	public ArrayList<Component> getComponents() {
+		ArrayList<Component> list = new ArrayList<>();
+
+		for (Component component : this.components) {
+			if (component != null) {
+				list.add(component);
+			}
+		}
+
+		return list;
 	}
 
 	/**
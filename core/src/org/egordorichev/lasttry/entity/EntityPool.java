@@ -0,0 +1,74 @@
+package org.egordorichev.lasttry.entity;
+
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.function.Supplier;
+
+/**
+ * Recycles entities of one archetype
+ * Pooled entities keep their components, so both the shell and the components are reused,
+ * the engine returns them here, when they are removed
+ */
+public class EntityPool<T extends Entity> extends Pool<T> {
+	/**
+	 * Creates new entities, when the pool is empty
+	 */
+	private Supplier<T> factory;
+
+	public EntityPool(Supplier<T> factory, int max) {
+		super(16, max);
+		this.factory = factory;
+	}
+
+	/**
+	 * Creates a new entity, owned by this pool
+	 *
+	 * @return New entity
+	 */
+	@Override
+	protected T newObject() {
+		T entity = this.factory.get();
+		entity.pool = this;
+
+		return entity;
+	}
+
+	/**
+	 * Returns a free entity or creates a new one
+	 *
+	 * @return Entity with reset components
+	 */
+	@Override
+	public T obtain() {
+		T entity = super.obtain();
+		entity.pooled = false;
+
+		return entity;
+	}
+
+	/**
+	 * Resets the entity and keeps it for later, unless the pool is full
+	 *
+	 * @param entity Entity to free
+	 */
+	@Override
+	public void free(T entity) {
+		if (entity.pooled) {
+			return;
+		}
+
+		entity.pooled = true;
+		super.free(entity);
+	}
+
+	/**
+	 * Frees an entity, that this pool has created
+	 * The cast is safe: only entities from newObject() point to this pool
+	 *
+	 * @param entity Entity to free
+	 */
+	@SuppressWarnings("unchecked")
+	void release(Entity entity) {
+		this.free((T) entity);
+	}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.egordorichev.lasttry.entity.asset;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class AssetStorage<T> {
 	/**
@@ -27,4 +28,11 @@ public class AssetStorage<T> {
 	public T get(String id) {
 		return this.storage.get(id);
 	}
+
+	/**
+	 * @return All stored asset IDs
+	 */
+	public Set<String> getIds() {
+		return this.storage.keySet();
+	}
 }
\ No newline at end of file
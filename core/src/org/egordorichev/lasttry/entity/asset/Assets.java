@@ -13,6 +13,7 @@ import org.egordorichev.lasttry.entity.asset.factories.KeyFactory;
 import org.egordorichev.lasttry.entity.asset.storages.CreaturesData;
 import org.egordorichev.lasttry.entity.asset.storages.Items;
 import org.egordorichev.lasttry.entity.asset.storages.KeyBindings;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
 import org.egordorichev.lasttry.util.log.Log;
 
 public class Assets {
@@ -20,6 +21,10 @@ public class Assets {
 	 * Item holder
 	 */
 	public static Items items = new Items();
+	/**
+	 * Numeric tile IDs
+	 */
+	public static Tiles tiles = new Tiles();
 	/**
 	 * Creatures data holder
 	 */
@@ -94,6 +99,7 @@ public class Assets {
 	private static void loadJSON() {
 		AssetLoader.load("keys", new KeyFactory());
 		AssetLoader.load("items", new ItemFactory());
+		tiles.build(items);
 		AssetLoader.load("creatures", new CreaturesDataFactory());
 	}
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.JsonValue;
 import org.egordorichev.lasttry.entity.asset.AssetFactory;
 import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.component.ComponentTypes;
 import org.egordorichev.lasttry.entity.component.IdComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.component.physics.CollisionComponent;
@@ -95,7 +96,7 @@ public class CreatureFactory extends AssetFactory<Creature> {
 		for (JsonValue component : asset.get("components")) {
 			if (component.isString()) {
 				try {
-					Class type = Class.forName("org.egordorichev.lasttry." + component.toString());
+					Class type = ComponentTypes.forName("org.egordorichev.lasttry." + component.toString());
 					creature.addComponent(type);
 				} catch (ClassNotFoundException exception) {
 					Log.error("Class " + component.toString() + " is not found");
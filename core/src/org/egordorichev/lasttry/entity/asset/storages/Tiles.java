@@ -0,0 +1,147 @@
+package org.egordorichev.lasttry.entity.asset.storages;
+
+import org.egordorichev.lasttry.entity.component.physics.CollisionComponent;
+import org.egordorichev.lasttry.entity.entities.item.Item;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
+import org.egordorichev.lasttry.entity.entities.item.tile.Tile;
+import org.egordorichev.lasttry.util.log.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Maps tile IDs to compact numeric IDs
+ * Chunks store those numbers instead of strings,
+ * So the tile lookup is just an array access
+ */
+public class Tiles {
+	/**
+	 * Numeric ID for "no tile here"
+	 */
+	public static final short EMPTY = 0;
+	/**
+	 * Tiles by numeric ID
+	 */
+	private Tile[] tiles = new Tile[1];
+	/**
+	 * String IDs by numeric ID
+	 */
+	private String[] names = new String[1];
+	/**
+	 * Shows, if the tile is a solid block, by numeric ID
+	 */
+	private boolean[] solid = new boolean[1];
+	/**
+	 * Numeric IDs by string ID
+	 */
+	private HashMap<String, Short> ids = new HashMap<>();
+
+	/**
+	 * Registers all tiles from the item storage
+	 *
+	 * @param items Loaded items
+	 */
+	public void build(Items items) {
+		ArrayList<String> list = new ArrayList<>();
+
+		for (String id : items.getIds()) {
+			if (items.get(id) instanceof Tile) {
+				list.add(id);
+			}
+		}
+
+		// Sorted, so that the numbers are the same on every run
+		Collections.sort(list);
+
+		this.tiles = new Tile[list.size() + 1];
+		this.names = new String[list.size() + 1];
+		this.solid = new boolean[list.size() + 1];
+		this.ids.clear();
+
+		for (int i = 0; i < list.size(); i++) {
+			short number = (short) (i + 1);
+			String id = list.get(i);
+			Item item = items.get(id);
+
+			this.tiles[number] = (Tile) item;
+			this.names[number] = id;
+			this.ids.put(id, number);
+
+			if (item instanceof Block) {
+				CollisionComponent collision = item.getComponent(CollisionComponent.class);
+				this.solid[number] = collision != null && collision.solid;
+			}
+
+			((Tile) item).setNumericId(number);
+		}
+
+		Log.debug("Registered " + list.size() + " tiles");
+	}
+
+	/**
+	 * Returns numeric ID for given tile ID
+	 *
+	 * @param id Tile ID
+	 * @return Numeric ID or EMPTY, if the tile is unknown
+	 */
+	public short getId(String id) {
+		if (id == null) {
+			return EMPTY;
+		}
+
+		Short number = this.ids.get(id);
+
+		if (number == null) {
+			Log.warning("Unknown tile " + id);
+			return EMPTY;
+		}
+
+		return number;
+	}
+
+	/**
+	 * Returns tile with given numeric ID
+	 *
+	 * @param id Numeric ID
+	 * @return The tile or null
+	 */
+	public Tile get(int id) {
+		if (id <= EMPTY || id >= this.tiles.length) {
+			return null;
+		}
+
+		return this.tiles[id];
+	}
+
+	/**
+	 * Checks, if the tile is a solid block
+	 *
+	 * @param id Numeric ID
+	 * @return The tile is solid
+	 */
+	public boolean isSolid(int id) {
+		return id > EMPTY && id < this.solid.length && this.solid[id];
+	}
+
+	/**
+	 * Returns tile ID for given numeric ID
+	 *
+	 * @param id Numeric ID
+	 * @return Tile ID or null
+	 */
+	public String getName(int id) {
+		if (id <= EMPTY || id >= this.names.length) {
+			return null;
+		}
+
+		return this.names[id];
+	}
+
+	/**
+	 * @return Amount of registered numeric IDs (including EMPTY)
+	 */
+	public int getCount() {
+		return this.tiles.length;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.egordorichev.lasttry.entity.component;
+
+/**
+ * Marks entities, that are close enough to a player to be simulated
+ * Entities without it are frozen (see ActivitySystem)
+ */
+public class ActiveComponent extends Component {
+
+}
\ No newline at end of file
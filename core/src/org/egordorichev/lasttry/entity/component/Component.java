@@ -1,5 +1,6 @@
 package org.egordorichev.lasttry.entity.component;
 
+import com.badlogic.gdx.utils.Pool;
 import org.egordorichev.lasttry.core.io.FileReader;
 import org.egordorichev.lasttry.core.io.FileWriter;
 import org.egordorichev.lasttry.entity.Entity;
@@ -7,7 +8,7 @@ import org.egordorichev.lasttry.entity.Entity;
 /**
  * Base class for all components
  */
-public class Component {
+public class Component implements Pool.Poolable {
 	/**
 	 * Entity, that has this component
 	 */
@@ -19,6 +20,14 @@ public class Component {
 
 	}
 
+	/**
+	 * Restores default values, when its entity goes back to the pool
+	 */
+	@Override
+	public void reset() {
+
+	}
+
 	/**
 	 * Sets entity
 	 *
@@ -0,0 +1,118 @@
+package org.egordorichev.lasttry.entity.component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+/**
+ * Gives every component class a dense numeric ID,
+ * so entities can keep components in an array and families can use bit masks
+ * Also creates components with cached constructors
+ */
+public class ComponentTypes {
+	/**
+	 * IDs by component class
+	 */
+	private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return register();
+		}
+	};
+	/**
+	 * Component factories by component class,
+	 * the constructor is looked up only once per class
+	 */
+	private static final ClassValue<Supplier<Component>> factories = new ClassValue<Supplier<Component>>() {
+		@Override
+		protected Supplier<Component> computeValue(Class<?> type) {
+			MethodHandle constructor;
+
+			try {
+				constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Component.class));
+			} catch (Exception exception) {
+				throw new IllegalArgumentException("Component " + type.getName() + " has no public constructor without arguments", exception);
+			}
+
+			return () -> {
+				try {
+					return (Component) constructor.invokeExact();
+				} catch (RuntimeException | Error exception) {
+					throw exception;
+				} catch (Throwable throwable) {
+					throw new RuntimeException(throwable);
+				}
+			};
+		}
+	};
+	/**
+	 * Component classes by name
+	 */
+	private static final HashMap<String, Class<? extends Component>> classes = new HashMap<>();
+	/**
+	 * Amount of registered types
+	 */
+	private static int count;
+
+	/**
+	 * Returns ID for given component class, registering it if needed
+	 *
+	 * @param type Component class
+	 * @return Component type ID
+	 */
+	public static int getId(Class<? extends Component> type) {
+		return ids.get(type);
+	}
+
+	/**
+	 * Creates a new component
+	 *
+	 * @param type Component class
+	 * @return New component
+	 */
+	public static <T extends Component> T create(Class<T> type) {
+		return type.cast(factories.get(type).get());
+	}
+
+	/**
+	 * Returns component class with given name, the lookup is cached
+	 *
+	 * @param name Full class name
+	 * @return Component class
+	 * @throws ClassNotFoundException If there is no such component
+	 */
+	@SuppressWarnings("unchecked")
+	public static synchronized Class<? extends Component> forName(String name) throws ClassNotFoundException {
+		Class<? extends Component> type = classes.get(name);
+
+		if (type == null) {
+			Class<?> found = Class.forName(name);
+
+			if (!Component.class.isAssignableFrom(found)) {
+				throw new ClassNotFoundException(name + " is not a component");
+			}
+
+			type = (Class<? extends Component>) found;
+			classes.put(name, type);
+		}
+
+		return type;
+	}
+
+	/**
+	 * @return Amount of registered types
+	 */
+	public static synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return Next free ID
+	 */
+	private static synchronized int register() {
+		return count++;
+	}
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.egordorichev.lasttry.entity.component;
 
 import org.egordorichev.lasttry.core.io.FileReader;
 import org.egordorichev.lasttry.core.io.FileWriter;
+import org.egordorichev.lasttry.entity.engine.Engine;
 
 import java.io.IOException;
 
@@ -10,13 +11,133 @@ import java.io.IOException;
  */
 public class PositionComponent extends Component {
 	/**
-	 * X coordinate
+	 * Array with the coordinates, either own or shared with a dense store
 	 */
-	public float x;
+	protected float[] data = new float[2];
 	/**
-	 * Y coordinatez
+	 * Array with the coordinates at the start of the last tick, or null
 	 */
-	public float y;
+	protected float[] previous;
+	/**
+	 * Index of X in the array, Y follows it
+	 */
+	protected int offset;
+
+	/**
+	 * @return X coordinate
+	 */
+	public float getX() {
+		return this.data[this.offset];
+	}
+
+	/**
+	 * @return Y coordinate
+	 */
+	public float getY() {
+		return this.data[this.offset + 1];
+	}
+
+	/**
+	 * @return X coordinate to render at, between the last two ticks
+	 */
+	public float getRenderX() {
+		if (this.previous == null) {
+			return this.getX();
+		}
+
+		float x = this.previous[this.offset];
+		return x + (this.getX() - x) * Engine.getAlpha();
+	}
+
+	/**
+	 * @return Y coordinate to render at, between the last two ticks
+	 */
+	public float getRenderY() {
+		if (this.previous == null) {
+			return this.getY();
+		}
+
+		float y = this.previous[this.offset + 1];
+		return y + (this.getY() - y) * Engine.getAlpha();
+	}
+
+	/**
+	 * @param x New X coordinate
+	 */
+	public void setX(float x) {
+		this.data[this.offset] = x;
+	}
+
+	/**
+	 * @param y New Y coordinate
+	 */
+	public void setY(float y) {
+		this.data[this.offset + 1] = y;
+	}
+
+	/**
+	 * Sets both coordinates
+	 *
+	 * @param x New X coordinate
+	 * @param y New Y coordinate
+	 */
+	public void set(float x, float y) {
+		this.data[this.offset] = x;
+		this.data[this.offset + 1] = y;
+	}
+
+	/**
+	 * Moves the entity back to zero
+	 */
+	@Override
+	public void reset() {
+		this.set(0, 0);
+	}
+
+	/**
+	 * Moves the coordinates into a shared array,
+	 * the component becomes a view onto it
+	 *
+	 * @param data Shared array
+	 * @param offset Index of X in the array
+	 */
+	public void bind(float[] data, int offset) {
+		this.bind(data, null, offset);
+	}
+
+	/**
+	 * Moves the coordinates and the previous tick coordinates into shared arrays,
+	 * so the component can be interpolated
+	 *
+	 * @param data Shared array
+	 * @param previous Shared array with the previous coordinates, or null
+	 * @param offset Index of X in the arrays
+	 */
+	public void bind(float[] data, float[] previous, int offset) {
+		float x = this.getX();
+		float y = this.getY();
+
+		if (previous != null) {
+			previous[offset] = this.previous == null ? x : this.previous[this.offset];
+			previous[offset + 1] = this.previous == null ? y : this.previous[this.offset + 1];
+		}
+
+		data[offset] = x;
+		data[offset + 1] = y;
+
+		this.data = data;
+		this.previous = previous;
+		this.offset = offset;
+	}
+
+	/**
+	 * Moves the coordinates back into an own array
+	 */
+	public void unbind() {
+		this.data = new float[] { this.getX(), this.getY() };
+		this.previous = null;
+		this.offset = 0;
+	}
 
 	/**
 	 * Writes component to file
@@ -26,8 +147,8 @@ public class PositionComponent extends Component {
 	@Override
 	public void write(FileWriter writer) {
 		try {
-			writer.writeFloat(this.x);
-			writer.writeFloat(this.y);
+			writer.writeFloat(this.getX());
+			writer.writeFloat(this.getY());
 		} catch (IOException exception) {
 			exception.printStackTrace();
 		}
@@ -41,8 +162,7 @@ public class PositionComponent extends Component {
 	@Override
 	public void load(FileReader reader) {
 		try {
-			this.x = reader.readFloat();
-			this.y = reader.readFloat();
+			this.set(reader.readFloat(), reader.readFloat());
 		} catch (IOException exception) {
 			exception.printStackTrace();
 		}
@@ -18,6 +18,15 @@ public class SizeComponent extends Component {
 	 */
 	public float height;
 
+	/**
+	 * Clears the size
+	 */
+	@Override
+	public void reset() {
+		this.width = 0;
+		this.height = 0;
+	}
+
 	/**
 	 * Writes component to file
 	 *
@@ -18,4 +18,31 @@ public class CollisionComponent extends Component {
 	 * How fast the entity falls
 	 */
 	public float weight = 0.2f;
+	/**
+	 * Ticks, that the entity spent resting on the ground
+	 */
+	public int rest;
+	/**
+	 * Entity is asleep, physics skip it until something wakes it
+	 */
+	public boolean sleeping;
+
+	/**
+	 * Wakes the entity up
+	 */
+	public void wake() {
+		this.rest = 0;
+		this.sleeping = false;
+	}
+
+	/**
+	 * Restores default collision data
+	 */
+	@Override
+	public void reset() {
+		this.solid = true;
+		this.onGround = true;
+		this.weight = 0.2f;
+		this.wake();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package org.egordorichev.lasttry.entity.component.physics;
+
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.PositionComponent;
+import org.egordorichev.lasttry.entity.engine.FamilyListener;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Dense storage for position, velocity and acceleration of moving entities
+ * Values live in parallel float arrays ([x, y] per slot), and the components
+ * become views onto them, so the physics update is a linear sweep
+ * Slots are kept packed: a removed slot is filled with the last one
+ */
+public class PhysicsStore implements FamilyListener {
+	/**
+	 * Positions
+	 */
+	public float[] positions;
+	/**
+	 * Positions at the start of the last tick, for render interpolation
+	 */
+	public float[] previous;
+	/**
+	 * Velocities
+	 */
+	public float[] velocities;
+	/**
+	 * Accelerations
+	 */
+	public float[] accelerations;
+	/**
+	 * Entities by slot
+	 */
+	public Entity[] entities;
+	/**
+	 * Bound components by slot
+	 */
+	private PositionComponent[][] views;
+	/**
+	 * Slots by entity
+	 */
+	private IdentityHashMap<Entity, Integer> slots = new IdentityHashMap<>();
+	/**
+	 * Amount of used slots
+	 */
+	private int count;
+
+	public PhysicsStore() {
+		this(64);
+	}
+
+	public PhysicsStore(int capacity) {
+		this.positions = new float[capacity * 2];
+		this.previous = new float[capacity * 2];
+		this.velocities = new float[capacity * 2];
+		this.accelerations = new float[capacity * 2];
+		this.entities = new Entity[capacity];
+		this.views = new PositionComponent[capacity][];
+	}
+
+	/**
+	 * Moves entity components into the store
+	 *
+	 * @param entity Entity with position, velocity and acceleration
+	 */
+	@Override
+	public void onAdded(Entity entity) {
+		if (this.slots.containsKey(entity)) {
+			return;
+		}
+
+		if (this.count == this.entities.length) {
+			this.grow();
+		}
+
+		int slot = this.count++;
+
+		this.entities[slot] = entity;
+		this.views[slot] = new PositionComponent[] {
+			entity.getComponent(PositionComponent.class),
+			entity.getComponent(VelocityComponent.class),
+			entity.getComponent(AccelerationComponent.class)
+		};
+
+		this.slots.put(entity, slot);
+		this.bind(slot);
+	}
+
+	/**
+	 * Moves entity components back out of the store
+	 *
+	 * @param entity Entity to remove
+	 */
+	@Override
+	public void onRemoved(Entity entity) {
+		Integer slot = this.slots.remove(entity);
+
+		if (slot == null) {
+			return;
+		}
+
+		for (PositionComponent view : this.views[slot]) {
+			view.unbind();
+		}
+
+		int last = --this.count;
+
+		if (slot != last) {
+			// Keep the slots packed
+			this.entities[slot] = this.entities[last];
+			this.views[slot] = this.views[last];
+			this.slots.put(this.entities[slot], slot);
+			this.bind(slot);
+		}
+
+		this.entities[last] = null;
+		this.views[last] = null;
+	}
+
+	/**
+	 * Remembers current positions as the previous ones, called at the start of a tick
+	 */
+	public void savePrevious() {
+		System.arraycopy(this.positions, 0, this.previous, 0, this.count * 2);
+	}
+
+	/**
+	 * @return Amount of entities in the store
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	/**
+	 * Binds components in the slot to the arrays
+	 *
+	 * @param slot Slot index
+	 */
+	private void bind(int slot) {
+		PositionComponent[] views = this.views[slot];
+
+		views[0].bind(this.positions, this.previous, slot * 2);
+		views[1].bind(this.velocities, slot * 2);
+		views[2].bind(this.accelerations, slot * 2);
+	}
+
+	/**
+	 * Doubles the capacity and rebinds all components
+	 */
+	private void grow() {
+		int capacity = this.entities.length * 2;
+
+		this.positions = Arrays.copyOf(this.positions, capacity * 2);
+		this.previous = Arrays.copyOf(this.previous, capacity * 2);
+		this.velocities = Arrays.copyOf(this.velocities, capacity * 2);
+		this.accelerations = Arrays.copyOf(this.accelerations, capacity * 2);
+		this.entities = Arrays.copyOf(this.entities, capacity);
+		this.views = Arrays.copyOf(this.views, capacity);
+
+		for (int i = 0; i < this.count; i++) {
+			this.bind(i);
+		}
+	}
+}
\ No newline at end of file
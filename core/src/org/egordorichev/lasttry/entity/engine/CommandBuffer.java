@@ -0,0 +1,119 @@
+package org.egordorichev.lasttry.entity.engine;
+
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * Queues entity adds, removes and component changes during the frame
+ * The engine applies them in one batch at the start of the next update,
+ * so systems never see the entity list change under them
+ */
+public class CommandBuffer {
+	/**
+	 * Entities to add
+	 */
+	LinkedHashSet<Entity> added = new LinkedHashSet<>();
+	/**
+	 * Entities to remove
+	 */
+	LinkedHashSet<Entity> removed = new LinkedHashSet<>();
+	/**
+	 * Component changes, in the order they were queued
+	 */
+	ArrayList<Change> changes = new ArrayList<>();
+
+	/**
+	 * Queues entity add
+	 *
+	 * @param entity Entity to add
+	 */
+	public void add(Entity entity) {
+		this.removed.remove(entity);
+		this.added.add(entity);
+	}
+
+	/**
+	 * Queues entity removal
+	 *
+	 * @param entity Entity to remove
+	 */
+	public void remove(Entity entity) {
+		this.added.remove(entity);
+		this.removed.add(entity);
+	}
+
+	/**
+	 * Queues component add
+	 *
+	 * @param entity Entity to change
+	 * @param type Component class to add
+	 */
+	public void addComponent(Entity entity, Class<? extends Component> type) {
+		this.changes.add(new Change(entity, type, true));
+	}
+
+	/**
+	 * Queues component removal
+	 *
+	 * @param entity Entity to change
+	 * @param type Component class to remove
+	 */
+	public void removeComponent(Entity entity, Class<? extends Component> type) {
+		this.changes.add(new Change(entity, type, false));
+	}
+
+	/**
+	 * @return Nothing is queued
+	 */
+	public boolean isEmpty() {
+		return this.added.isEmpty() && this.removed.isEmpty() && this.changes.isEmpty();
+	}
+
+	/**
+	 * Forgets all queued commands
+	 */
+	void clear() {
+		this.added.clear();
+		this.removed.clear();
+		this.changes.clear();
+	}
+
+	/**
+	 * Queued component change
+	 */
+	static class Change {
+		/**
+		 * Entity to change
+		 */
+		Entity entity;
+		/**
+		 * Component class
+		 */
+		Class<? extends Component> type;
+		/**
+		 * Add the component (or remove it)
+		 */
+		boolean add;
+
+		Change(Entity entity, Class<? extends Component> type, boolean add) {
+			this.entity = entity;
+			this.type = type;
+			this.add = add;
+		}
+
+		/**
+		 * Applies the change
+		 */
+		@SuppressWarnings("unchecked")
+		void apply() {
+			if (this.add) {
+				this.entity.addComponent(this.type);
+			} else {
+				this.entity.removeComponent(this.type);
+			}
+		}
+	}
+}
\ No newline at end of file
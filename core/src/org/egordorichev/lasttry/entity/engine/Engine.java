@@ -10,16 +10,28 @@ import org.egordorichev.lasttry.entity.entities.camera.CameraComponent;
 import org.egordorichev.lasttry.entity.entities.creature.Creature;
 import org.egordorichev.lasttry.entity.entities.item.inventory.InventoryComponent;
 import org.egordorichev.lasttry.entity.entities.world.Sky;
+import org.egordorichev.lasttry.entity.entities.world.World;
 import org.egordorichev.lasttry.entity.entities.world.WorldIO;
 import org.egordorichev.lasttry.util.log.Log;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 /**
  * Handles systems
  */
 public class Engine {
+	/**
+	 * Length of one simulation tick (in seconds)
+	 */
+	public static float TICK = 1 / 60.0f;
+	/**
+	 * Max amount of ticks per frame, after that the simulation slows down instead of catching up
+	 */
+	public static int MAX_TICKS = 5;
 	/**
 	 * All systems in the engine
 	 */
@@ -28,6 +40,42 @@ public class Engine {
 	 * All entities in the game
 	 */
 	private static ArrayList<Entity> entities = new ArrayList<>();
+	/**
+	 * All entities in the game, for fast lookup
+	 */
+	private static HashSet<Entity> members = new HashSet<>();
+	/**
+	 * Registered entity families
+	 */
+	private static ArrayList<Family> families = new ArrayList<>();
+	/**
+	 * Entity commands, queued during the frame
+	 */
+	private static CommandBuffer commands = new CommandBuffer();
+	/**
+	 * Queued commands are being applied
+	 */
+	private static boolean flushing;
+	/**
+	 * Entities, which components changed during the flush
+	 */
+	private static LinkedHashSet<Entity> touched = new LinkedHashSet<>();
+	/**
+	 * Entities, that render in the world
+	 */
+	private static RenderList renderList = new RenderList("render");
+	/**
+	 * Entities, that render UI
+	 */
+	private static RenderList uiRenderList = new RenderList("renderUi");
+	/**
+	 * Frame time, not simulated yet
+	 */
+	private static float accumulator;
+	/**
+	 * How far the frame is between the last two ticks, from 0 to 1
+	 */
+	private static float alpha;
 
 	/**
 	 * Adds all needed systems
@@ -62,8 +110,8 @@ public class Engine {
 
 			PositionComponent position = player.getComponent(PositionComponent.class);
 
-			position.x = 1256;
-			position.y = 2056;
+			position.setX(1256);
+			position.setY(2056);
 
 			Engine.addEntity(player);
 		} else {
@@ -80,8 +128,10 @@ public class Engine {
 		inventory.inventory[0].item = Assets.items.get("lt:stone_pickaxe");
 		inventory.inventory[0].count = 1;
 
-		cam.camera.position.x = position.x + size.width / 2;
-		cam.camera.position.y = position.y + size.height / 2;
+		cam.position.set(position.getX() + size.width / 2, position.getY() + size.height / 2);
+		cam.previous.set(cam.position);
+		cam.camera.position.x = cam.position.x;
+		cam.camera.position.y = cam.position.y;
 
 		addEntity(new Sky());
 	}
@@ -89,11 +139,13 @@ public class Engine {
 	private static void initSystems() {
 		addSystem(new CameraSystem());
 		addSystem(new SaveSystem());
+		addSystem(new ActivitySystem());
 		addSystem(new AnimationSystem());
 		addSystem(new MovementSystem());
 		addSystem(new CollisionSystem());
 		addSystem(new InventorySystem());
 		addSystem(new LightSystem());
+		addSystem(new ChunkSystem());
 		addSystem(new ClockSystem());
 		addSystem(new InteractionSystem());
 		addSystem(new UiSystem());
@@ -112,11 +164,37 @@ public class Engine {
 	}
 
 	/**
-	 * Updates all systems
+	 * Runs as many fixed ticks, as fit in the passed time
+	 * The rest is kept for the next frame, and rendering interpolates over it
 	 *
 	 * @param delta Time, since the last frame
 	 */
 	public static void update(float delta) {
+		accumulator = Math.min(accumulator + delta, TICK * MAX_TICKS);
+
+		while (accumulator >= TICK) {
+			tick(TICK);
+			accumulator -= TICK;
+		}
+
+		alpha = accumulator / TICK;
+	}
+
+	/**
+	 * Updates all systems once
+	 *
+	 * @param delta Tick length
+	 */
+	private static void tick(float delta) {
+		// Entities, added or removed during the last frame, appear here
+		flush();
+
+		// Chunks, loaded in the background, appear only here,
+		// So systems always see the same world during the frame
+		if (World.instance != null) {
+			World.instance.installLoadedChunks();
+		}
+
 		for (System system : systems) {
 			system.update(delta);
 		}
@@ -133,75 +211,250 @@ public class Engine {
 
 	/**
 	 * Returns all entities with given components
+	 * Systems should keep the family from getFamily() instead
 	 *
 	 * @param types Component types
-	 * @return Entities list
+	 * @return Entities list (a copy)
 	 */
+	@SafeVarargs
 	public static ArrayList<Entity> getEntitiesFor(Class<? extends Component>... types) {
-		ArrayList<Entity> list = new ArrayList<>();
+		return new ArrayList<>(getFamily(types).getEntities());
+	}
+
+	/**
+	 * Returns family for given components, registering it if needed
+	 * The types are only read, so passing them on to getMask() is safe
+	 *
+	 * @param types Component types
+	 * @return Family with live member list
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static Family getFamily(Class<? extends Component>... types) {
+		BitSet mask = Family.getMask(types);
+
+		for (Family family : families) {
+			if (family.is(mask)) {
+				return family;
+			}
+		}
+
+		Family family = new Family(mask);
+		families.add(family);
 
 		for (Entity entity : entities) {
-			boolean has = true;
+			family.update(entity);
+		}
 
-			for (Class<? extends Component> type : types) {
-				if (!entity.hasComponent(type)) {
-					has = false;
-					break;
-				}
-			}
+		return family;
+	}
 
-			if (has) {
-				list.add(entity);
-			}
+	/**
+	 * Updates family membership after entity components changed
+	 *
+	 * @param entity Changed entity
+	 */
+	public static void updateFamilies(Entity entity) {
+		if (!members.contains(entity)) {
+			return;
+		}
+
+		if (flushing) {
+			// Refreshed once, after all changes
+			touched.add(entity);
+			return;
 		}
 
-		return list;
+		for (Family family : families) {
+			family.update(entity);
+		}
 	}
 
 	/**
-	 * Adds an entity
+	 * Applies all queued commands in one batch
+	 */
+	public static void flush() {
+		if (commands.isEmpty()) {
+			return;
+		}
+
+		ArrayList<CommandBuffer.Change> changes = new ArrayList<>(commands.changes);
+		ArrayList<Entity> removed = new ArrayList<>(commands.removed);
+		ArrayList<Entity> added = new ArrayList<>(commands.added);
+
+		// Commands, queued while applying these, wait for the next flush
+		commands.clear();
+		flushing = true;
+
+		for (CommandBuffer.Change change : changes) {
+			change.apply();
+		}
+
+		flushing = false;
+
+		for (Entity entity : touched) {
+			updateFamilies(entity);
+		}
+
+		touched.clear();
+		removeEntities(removed);
+		addEntities(added);
+	}
+
+	/**
+	 * Adds an entity right away
+	 * Use getCommands().add() while systems are running
 	 *
 	 * @param entity Entity to add
 	 */
 	public static void addEntity(Entity entity) {
+		if (!members.add(entity)) {
+			return;
+		}
+
 		entities.add(entity);
+		renderList.add(entity);
+		uiRenderList.add(entity);
+
+		for (Family family : families) {
+			family.update(entity);
+		}
+
 		sendMessage(SystemMessages.ENTITIES_UPDATED);
-		recalculateZIndices();
 	}
 
 	/**
-	 * Removes an entity
+	 * Adds entities right away, with one family refresh and one message
+	 *
+	 * @param list Entities to add
+	 */
+	public static void addEntities(Collection<Entity> list) {
+		ArrayList<Entity> added = new ArrayList<>();
+
+		for (Entity entity : list) {
+			if (members.add(entity)) {
+				added.add(entity);
+			}
+		}
+
+		if (added.isEmpty()) {
+			return;
+		}
+
+		for (Entity entity : added) {
+			entities.add(entity);
+			renderList.add(entity);
+			uiRenderList.add(entity);
+
+			for (Family family : families) {
+				family.update(entity);
+			}
+		}
+
+		sendMessage(SystemMessages.ENTITIES_UPDATED);
+	}
+
+	/**
+	 * Removes an entity right away, pooled entities are released
+	 * Use getCommands().remove() while systems are running
 	 *
 	 * @param entity Entity to remove
 	 */
 	public static void removeEntity(Entity entity) {
+		if (!members.remove(entity)) {
+			return;
+		}
+
 		entities.remove(entity);
+		renderList.remove(entity, entity.getZIndex());
+		uiRenderList.remove(entity, entity.getZIndex());
+
+		for (Family family : families) {
+			family.remove(entity);
+		}
+
+		// Pooled entities go back for reuse
+		entity.release();
 		sendMessage(SystemMessages.ENTITIES_UPDATED);
 	}
 
 	/**
-	 * Sorts entities by z-index
+	 * Removes entities right away, with one pass over the entity list
+	 *
+	 * @param list Entities to remove
 	 */
-	public static void recalculateZIndices() {
-		entities.sort(new Comparator<Entity>() {
-			@Override
-			public int compare(Entity entity1, Entity entity2) {
-				byte z1 = entity1.getZIndex();
-				byte z2 = entity2.getZIndex();
+	public static void removeEntities(Collection<Entity> list) {
+		HashSet<Entity> removed = new HashSet<>();
 
-				if (z1 > z2) {
-					return 1;
-				} else if (z1 < z2) {
-					return -1;
-				}
+		for (Entity entity : list) {
+			if (members.remove(entity)) {
+				removed.add(entity);
+			}
+		}
 
-				return 0;
+		if (removed.isEmpty()) {
+			return;
+		}
+
+		entities.removeIf(removed::contains);
+
+		for (Entity entity : removed) {
+			renderList.remove(entity, entity.getZIndex());
+			uiRenderList.remove(entity, entity.getZIndex());
+
+			for (Family family : families) {
+				family.remove(entity);
 			}
-		});
+
+			entity.release();
+		}
+
+		sendMessage(SystemMessages.ENTITIES_UPDATED);
+	}
+
+	/**
+	 * Moves entity to the right render bucket after its z-index changed
+	 *
+	 * @param entity Changed entity
+	 * @param oldZIndex Its old z-index
+	 */
+	public static void updateZIndex(Entity entity, byte oldZIndex) {
+		if (members.contains(entity)) {
+			renderList.move(entity, oldZIndex);
+			uiRenderList.move(entity, oldZIndex);
+		}
+	}
+
+	/**
+	 * @return How far the frame is between the last two ticks, from 0 to 1
+	 */
+	public static float getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * @return Queued entity commands, applied at the start of the next update
+	 */
+	public static CommandBuffer getCommands() {
+		return commands;
+	}
+
+	/**
+	 * @return Entities with world rendering, by z-index
+	 */
+	public static RenderList getRenderList() {
+		return renderList;
+	}
+
+	/**
+	 * @return Entities with UI rendering, by z-index
+	 */
+	public static RenderList getUiRenderList() {
+		return uiRenderList;
 	}
 
 	/**
-	 * @return All entities
+	 * @return All entities (in no particular order)
 	 */
 	public static ArrayList<Entity> getEntities() {
 		return entities;
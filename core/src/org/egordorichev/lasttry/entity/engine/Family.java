@@ -0,0 +1,166 @@
+package org.egordorichev.lasttry.entity.engine;
+
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.Component;
+import org.egordorichev.lasttry.entity.component.ComponentTypes;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+
+/**
+ * Live list of engine entities, that have all given components
+ * The engine updates it, when entities or their components change,
+ * so systems can just iterate it every frame
+ */
+public class Family {
+	/**
+	 * Required component type IDs
+	 */
+	private BitSet mask;
+	/**
+	 * Member entities
+	 */
+	private ArrayList<Entity> entities = new ArrayList<>();
+	/**
+	 * Member entities, for fast lookup
+	 */
+	private HashSet<Entity> members = new HashSet<>();
+	/**
+	 * The list was given out, and must be copied before the next change,
+	 * so changes during iteration do not break it
+	 */
+	private boolean shared;
+	/**
+	 * Listeners, that get notified about membership changes
+	 */
+	private ArrayList<FamilyListener> listeners = new ArrayList<>();
+
+	/**
+	 * @param mask Component type IDs, that members must have
+	 */
+	Family(BitSet mask) {
+		this.mask = mask;
+	}
+
+	/**
+	 * Adds or removes entity, depending on its components
+	 *
+	 * @param entity Entity to check
+	 */
+	void update(Entity entity) {
+		boolean matches = this.matches(entity);
+
+		if (matches == this.members.contains(entity)) {
+			return;
+		}
+
+		this.unshare();
+
+		if (matches) {
+			this.members.add(entity);
+			this.entities.add(entity);
+
+			for (FamilyListener listener : this.listeners) {
+				listener.onAdded(entity);
+			}
+		} else {
+			this.members.remove(entity);
+			this.entities.remove(entity);
+
+			for (FamilyListener listener : this.listeners) {
+				listener.onRemoved(entity);
+			}
+		}
+	}
+
+	/**
+	 * Removes entity from the family
+	 *
+	 * @param entity Entity to remove
+	 */
+	void remove(Entity entity) {
+		if (this.members.remove(entity)) {
+			this.unshare();
+			this.entities.remove(entity);
+
+			for (FamilyListener listener : this.listeners) {
+				listener.onRemoved(entity);
+			}
+		}
+	}
+
+	/**
+	 * Adds a listener and tells it about current members
+	 *
+	 * @param listener Listener to add
+	 */
+	public void addListener(FamilyListener listener) {
+		this.listeners.add(listener);
+
+		for (Entity entity : this.entities) {
+			listener.onAdded(entity);
+		}
+	}
+
+	/**
+	 * @param entity Entity to check
+	 * @return Entity has all required components
+	 */
+	public boolean matches(Entity entity) {
+		return entity.hasComponents(this.mask);
+	}
+
+	/**
+	 * @param mask Component type IDs
+	 * @return Family requires exactly these types
+	 */
+	boolean is(BitSet mask) {
+		return this.mask.equals(mask);
+	}
+
+	/**
+	 * Returns member entities
+	 * The list is never changed after it was returned, so it is safe
+	 * to add or remove entities while iterating it, but it should be requested again every frame
+	 *
+	 * @return Member entities
+	 */
+	public ArrayList<Entity> getEntities() {
+		this.shared = true;
+		return this.entities;
+	}
+
+	/**
+	 * @return Amount of members
+	 */
+	public int size() {
+		return this.entities.size();
+	}
+
+	/**
+	 * Returns mask for given component types
+	 *
+	 * @param types Component types
+	 * @return Component type IDs
+	 */
+	static BitSet getMask(Class<? extends Component>[] types) {
+		BitSet mask = new BitSet();
+
+		for (Class<? extends Component> type : types) {
+			mask.set(ComponentTypes.getId(type));
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Copies the list, if it was given out
+	 */
+	private void unshare() {
+		if (this.shared) {
+			this.entities = new ArrayList<>(this.entities);
+			this.shared = false;
+		}
+	}
+}
\ No newline at end of file
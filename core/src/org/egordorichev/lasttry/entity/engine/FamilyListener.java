@@ -0,0 +1,23 @@
+package org.egordorichev.lasttry.entity.engine;
+
+import org.egordorichev.lasttry.entity.Entity;
+
+/**
+ * Gets notified, when family members change
+ */
+public interface FamilyListener {
+	/**
+	 * Called, when entity joins the family
+	 *
+	 * @param entity New member
+	 */
+	void onAdded(Entity entity);
+
+	/**
+	 * Called, when entity leaves the family
+	 * Its components might be already removed
+	 *
+	 * @param entity Old member
+	 */
+	void onRemoved(Entity entity);
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package org.egordorichev.lasttry.entity.engine;
+
+import org.egordorichev.lasttry.entity.Entity;
+
+import java.util.ArrayList;
+
+/**
+ * Entities for one render pass, kept in per-z-index buckets
+ * Adding, removing or moving an entity only touches its bucket,
+ * so the order never needs a full resort
+ * Only entities, that override the pass method, are added
+ */
+public class RenderList {
+	/**
+	 * Amount of possible z-indices
+	 */
+	private static final int BUCKETS = 256;
+	/**
+	 * Entities by z-index (index is z-index + 128)
+	 */
+	private ArrayList<Entity>[] buckets;
+	/**
+	 * Classes, that override the pass method
+	 */
+	private ClassValue<Boolean> renders;
+
+	/**
+	 * @param method Name of the render method for this pass
+	 */
+	public RenderList(String method) {
+		this.buckets = createBuckets();
+
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets[i] = new ArrayList<>();
+		}
+
+		this.renders = new ClassValue<Boolean>() {
+			@Override
+			protected Boolean computeValue(Class<?> type) {
+				try {
+					return type.getMethod(method).getDeclaringClass() != Entity.class;
+				} catch (NoSuchMethodException exception) {
+					return false;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Java can not create generic arrays, so the bucket array is created unchecked
+	 *
+	 * @return Empty bucket array
+	 */
+	@SuppressWarnings("unchecked")
+	private static ArrayList<Entity>[] createBuckets() {
+		return (ArrayList<Entity>[]) new ArrayList<?>[BUCKETS];
+	}
+
+	/**
+	 * Adds entity to its bucket, after entities with the same z-index
+	 *
+	 * @param entity Entity to add
+	 */
+	public void add(Entity entity) {
+		if (this.renders.get(entity.getClass())) {
+			this.buckets[entity.getZIndex() + 128].add(entity);
+		}
+	}
+
+	/**
+	 * Removes entity
+	 *
+	 * @param entity Entity to remove
+	 * @param zIndex Z-index, that the entity was added with
+	 */
+	public void remove(Entity entity, byte zIndex) {
+		if (this.renders.get(entity.getClass())) {
+			this.buckets[zIndex + 128].remove(entity);
+		}
+	}
+
+	/**
+	 * Moves entity to another bucket
+	 *
+	 * @param entity Entity to move
+	 * @param oldZIndex Its old z-index
+	 */
+	public void move(Entity entity, byte oldZIndex) {
+		if (oldZIndex != entity.getZIndex()) {
+			this.remove(entity, oldZIndex);
+			this.add(entity);
+		}
+	}
+
+	/**
+	 * Removes all entities
+	 */
+	public void clear() {
+		for (ArrayList<Entity> bucket : this.buckets) {
+			bucket.clear();
+		}
+	}
+
+	/**
+	 * Returns buckets from the lowest z-index to the highest
+	 * Entities in a bucket are in the order they were added
+	 *
+	 * @return Buckets
+	 */
+	public ArrayList<Entity>[] getBuckets() {
+		return this.buckets;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.egordorichev.lasttry.entity.engine.event;
+
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Base class for all events
+ * Events are pooled, get them with Events.obtain()
+ */
+public class Event implements Pool.Poolable {
+	/**
+	 * Clears event data, before it goes back to the pool
+	 */
+	@Override
+	public void reset() {
+
+	}
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package org.egordorichev.lasttry.entity.engine.event;
+
+/**
+ * Handles events of one type
+ *
+ * @param <T> Event type
+ */
+public interface EventListener<T extends Event> {
+	/**
+	 * Handles event
+	 * The event is reused after this call, do not keep it
+	 *
+	 * @param event The event
+	 */
+	void handle(T event);
+}
\ No newline at end of file
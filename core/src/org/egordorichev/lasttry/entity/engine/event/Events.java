@@ -0,0 +1,71 @@
+package org.egordorichev.lasttry.entity.engine.event;
+
+import com.badlogic.gdx.utils.Pools;
+
+import java.util.ArrayList;
+
+/**
+ * Typed event bus
+ * Listeners subscribe to one event class and get only events of that class,
+ * events are pooled, so posting them does not allocate
+ * Should be used only from the main thread
+ */
+public class Events {
+	/**
+	 * Listeners by event class
+	 */
+	private static final ClassValue<ArrayList<EventListener<?>>> listeners = new ClassValue<ArrayList<EventListener<?>>>() {
+		@Override
+		protected ArrayList<EventListener<?>> computeValue(Class<?> type) {
+			return new ArrayList<>();
+		}
+	};
+
+	/**
+	 * Subscribes listener to events of given type
+	 *
+	 * @param type Event class
+	 * @param listener Listener to add
+	 */
+	public static <T extends Event> void subscribe(Class<T> type, EventListener<T> listener) {
+		listeners.get(type).add(listener);
+	}
+
+	/**
+	 * Unsubscribes listener from events of given type
+	 *
+	 * @param type Event class
+	 * @param listener Listener to remove
+	 */
+	public static <T extends Event> void unsubscribe(Class<T> type, EventListener<T> listener) {
+		listeners.get(type).remove(listener);
+	}
+
+	/**
+	 * Returns a free event from the pool
+	 *
+	 * @param type Event class
+	 * @return Event to fill and post
+	 */
+	public static <T extends Event> T obtain(Class<T> type) {
+		return Pools.obtain(type);
+	}
+
+	/**
+	 * Passes event to its listeners and returns it to the pool
+	 *
+	 * @param event Event, obtained with obtain()
+	 */
+	@SuppressWarnings("unchecked")
+	public static void post(Event event) {
+		ArrayList<EventListener<?>> list = listeners.get(event.getClass());
+
+		// Index loop, listeners might subscribe while handling
+		// The cast is safe: listeners are stored under the class of their events
+		for (int i = 0; i < list.size(); i++) {
+			((EventListener<Event>) list.get(i)).handle(event);
+		}
+
+		Pools.free(event);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package org.egordorichev.lasttry.entity.engine.system.systems;
+
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.ActiveComponent;
+import org.egordorichev.lasttry.entity.component.PositionComponent;
+import org.egordorichev.lasttry.entity.component.physics.CollisionComponent;
+import org.egordorichev.lasttry.entity.component.physics.VelocityComponent;
+import org.egordorichev.lasttry.entity.engine.Engine;
+import org.egordorichev.lasttry.entity.engine.Family;
+import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.system.System;
+import org.egordorichev.lasttry.entity.entities.item.inventory.InventoryComponent;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * Freezes entities far from the players
+ * Entities in chunks within the simulation radius of a player get the active component,
+ * and only active entities are moved, animated and run their AI
+ * The component changes are queued, so the families stay the same until the next tick
+ */
+public class ActivitySystem implements System {
+	/**
+	 * Simulation radius around players (in chunks)
+	 */
+	public static int SIMULATION_RADIUS = 2;
+	/**
+	 * Time between activity checks (in seconds)
+	 */
+	public static float CHECK_DELAY = 0.25f;
+	/**
+	 * Players, the world is simulated around them
+	 */
+	private Family players = Engine.getFamily(InventoryComponent.class, PositionComponent.class);
+	/**
+	 * Entities, that can be frozen
+	 */
+	private Family family = Engine.getFamily(PositionComponent.class, VelocityComponent.class);
+	/**
+	 * Time since the last check
+	 */
+	private float time = CHECK_DELAY;
+
+	/**
+	 * Freezes and unfreezes entities
+	 *
+	 * @param delta Time, since the last frame
+	 */
+	@Override
+	public void update(float delta) {
+		this.time += delta;
+
+		if (this.time < CHECK_DELAY) {
+			return;
+		}
+
+		this.time = 0;
+
+		ArrayList<Entity> players = this.players.getEntities();
+		ArrayList<Entity> entities = this.family.getEntities();
+
+		for (int i = 0; i < entities.size(); i++) {
+			Entity entity = entities.get(i);
+			boolean active = players.isEmpty() || this.isNearPlayer(entity, players);
+
+			if (active != entity.hasComponent(ActiveComponent.class)) {
+				if (active) {
+					CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+
+					// The world might have changed, while it was frozen
+					if (collision != null) {
+						collision.wake();
+					}
+
+					Engine.getCommands().addComponent(entity, ActiveComponent.class);
+				} else {
+					Engine.getCommands().removeComponent(entity, ActiveComponent.class);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks new entities on the next tick, so they do not wait frozen
+	 *
+	 * @param message Message from the engine
+	 */
+	@Override
+	public void handleMessage(String message) {
+		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
+			this.time = CHECK_DELAY;
+		}
+	}
+
+	/**
+	 * Checks, if entity is in a chunk within the simulation radius of a player
+	 *
+	 * @param entity Entity to check
+	 * @param players All players
+	 * @return Entity should be simulated
+	 */
+	private boolean isNearPlayer(Entity entity, ArrayList<Entity> players) {
+		PositionComponent position = entity.getComponent(PositionComponent.class);
+		int x = getChunk(position.getX());
+		int y = getChunk(position.getY());
+
+		for (int i = 0; i < players.size(); i++) {
+			PositionComponent player = players.get(i).getComponent(PositionComponent.class);
+
+			if (Math.abs(getChunk(player.getX()) - x) <= SIMULATION_RADIUS
+				&& Math.abs(getChunk(player.getY()) - y) <= SIMULATION_RADIUS) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @param coordinate World coordinate
+	 * @return Chunk coordinate
+	 */
+	private static int getChunk(float coordinate) {
+		return (int) Math.floor(coordinate / (Chunk.SIZE * Block.SIZE));
+	}
+}
\ No newline at end of file
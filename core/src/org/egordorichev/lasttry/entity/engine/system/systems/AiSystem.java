@@ -1,22 +1,20 @@
 package org.egordorichev.lasttry.entity.engine.system.systems;
 
 import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.ActiveComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.creature.AiComponent;
 
-import java.util.ArrayList;
-import java.util.Objects;
-
 /**
  * Handles creatures AI
  */
 public class AiSystem implements System {
 	/**
-	 * List of entities, that have AI
+	 * List of active entities, that have AI
 	 */
-	private ArrayList<Entity> entities = new ArrayList<>();
+	private Family family = Engine.getFamily(AiComponent.class, ActiveComponent.class);
 
 	/**
 	 * Handles input
@@ -25,21 +23,9 @@ public class AiSystem implements System {
 	 */
 	@Override
 	public void update(float delta) {
-		for (Entity entity : this.entities) {
+		for (Entity entity : this.family.getEntities()) {
 			AiComponent ai = entity.getComponent(AiComponent.class);
 			ai.ai.update(ai.getEntity());
 		}
 	}
-
-	/**
-	 * Handles in-coming messages
-	 *
-	 * @param message Message from the engine
-	 */
-	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(AiComponent.class);
-		}
-	}
 }
\ No newline at end of file
@@ -1,22 +1,20 @@
 package org.egordorichev.lasttry.entity.engine.system.systems;
 
 import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.ActiveComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.creature.AnimationComponent;
 
-import java.util.ArrayList;
-import java.util.Objects;
-
 /**
  * Updates all animations
  */
 public class AnimationSystem implements System {
 	/**
-	 * List of entities, that have animations
+	 * List of active entities, that have animations
 	 */
-	private ArrayList<Entity> entities = new ArrayList<>();
+	private Family family = Engine.getFamily(AnimationComponent.class, ActiveComponent.class);
 
 	/**
 	 * Handles input
@@ -25,7 +23,7 @@ public class AnimationSystem implements System {
 	 */
 	@Override
 	public void update(float delta) {
-		for (Entity entity : this.entities) {
+		for (Entity entity : this.family.getEntities()) {
 			AnimationComponent animation = entity.getComponent(AnimationComponent.class);
 
 			if (animation.current != null) {
@@ -33,16 +31,4 @@ public class AnimationSystem implements System {
 			}
 		}
 	}
-
-	/**
-	 * Handles in-coming messages
-	 *
-	 * @param message Message from the engine
-	 */
-	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(AnimationComponent.class);
-		}
-	}
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.egordorichev.lasttry.entity.component.PositionComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.component.TargetComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.SystemMessages;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.camera.Camera;
@@ -16,7 +17,6 @@ import org.egordorichev.lasttry.entity.entities.world.World;
 import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
 import org.egordorichev.lasttry.graphics.PerfectViewport;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -33,6 +33,10 @@ public class CameraSystem implements System {
 	 * All in-game cameras
 	 */
 	private HashMap<String, Entity> cameras;
+	/**
+	 * Entities, that are cameras
+	 */
+	private Family family = Engine.getFamily(TargetComponent.class, CameraComponent.class, IdComponent.class);
 	/**
 	 * The viewport
 	 */
@@ -46,8 +50,9 @@ public class CameraSystem implements System {
 
 	/**
 	 * Updates the cameras position
+	 * Runs once per fixed tick, the cameras are moved between tick positions in interpolate()
 	 *
-	 * @param delta Time, since the last frame
+	 * @param delta Time, since the last tick
 	 */
 	@Override
 	public void update(float delta) {
@@ -56,19 +61,21 @@ public class CameraSystem implements System {
 			TargetComponent component = camera.getComponent(TargetComponent.class);
 			CameraComponent cam = camera.getComponent(CameraComponent.class);
 
+			cam.previous.set(cam.position);
+
 			if (component.target != null) {
 				Entity target = component.target;
 				PositionComponent position = target.getComponent(PositionComponent.class);
 				SizeComponent size = target.getComponent(SizeComponent.class);
 
-				float x = position.x + size.width / 2;
-				float y = position.y + size.height / 2;
-				float dx = x - cam.camera.position.x;
-				float dy = y - cam.camera.position.y;
+				float x = position.getX() + size.width / 2;
+				float y = position.getY() + size.height / 2;
+				float dx = x - cam.position.x;
+				float dy = y - cam.position.y;
 
 				if (Math.abs(dx) + Math.abs(dy) > 20) {
-					cam.camera.position.x += dx * 4f * delta;
-					cam.camera.position.y += dy * 4f * delta;
+					cam.position.x += dx * 4f * delta;
+					cam.position.y += dy * 4f * delta;
 				}
 
 				SizeComponent worldSize = World.instance.getComponent(SizeComponent.class);
@@ -78,9 +85,32 @@ public class CameraSystem implements System {
 				float halfDisplayWidth = cam.camera.viewportWidth / 2;
 				float halfDisplayHeight = cam.camera.viewportHeight / 2;
 
+				cam.position.x = Math.max(Math.min(cam.position.x, width - halfDisplayWidth - Block.SIZE), halfDisplayWidth + Block.SIZE);
+				cam.position.y = Math.max(Math.min(cam.position.y, height - halfDisplayHeight - Block.SIZE), halfDisplayHeight + Block.SIZE);
+			}
+
+			if (delta > 0) {
+				cam.velocity.set((cam.position.x - cam.previous.x) / delta, (cam.position.y - cam.previous.y) / delta);
+			}
+		}
+	}
+
+	/**
+	 * Moves the cameras between their last two tick positions,
+	 * the same way, as the entities are rendered, so the followed entity does not jitter
+	 * Must be called once per frame, before rendering
+	 */
+	public void interpolate() {
+		float alpha = Engine.getAlpha();
+
+		for (Map.Entry<String, Entity> pair : this.cameras.entrySet()) {
+			Camera camera = (Camera) pair.getValue();
+			CameraComponent cam = camera.getComponent(CameraComponent.class);
+
+			if (camera.getComponent(TargetComponent.class).target != null) {
 				// Auto floor it:
-				cam.camera.position.x = (int) Math.max(Math.min(cam.camera.position.x, width - halfDisplayWidth - Block.SIZE), halfDisplayWidth + Block.SIZE);
-				cam.camera.position.y = (int) Math.max(Math.min(cam.camera.position.y, height - halfDisplayHeight - Block.SIZE), halfDisplayHeight + Block.SIZE);
+				cam.camera.position.x = (int) (cam.previous.x + (cam.position.x - cam.previous.x) * alpha);
+				cam.camera.position.y = (int) (cam.previous.y + (cam.position.y - cam.previous.y) * alpha);
 			}
 
 			cam.camera.update();
@@ -113,10 +143,9 @@ public class CameraSystem implements System {
 
 			this.viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false);
 		} else if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			ArrayList<Entity> entities = Engine.getEntitiesFor(TargetComponent.class, CameraComponent.class, IdComponent.class);
 			this.cameras.clear();
 
-			for (Entity entity : entities) {
+			for (Entity entity : this.family.getEntities()) {
 				this.cameras.put(entity.getComponent(IdComponent.class).id, entity);
 			}
 
@@ -0,0 +1,156 @@
+package org.egordorichev.lasttry.entity.engine.system.systems;
+
+import com.badlogic.gdx.math.Vector2;
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.PositionComponent;
+import org.egordorichev.lasttry.entity.component.TargetComponent;
+import org.egordorichev.lasttry.entity.engine.Engine;
+import org.egordorichev.lasttry.entity.engine.Family;
+import org.egordorichev.lasttry.entity.engine.system.System;
+import org.egordorichev.lasttry.entity.entities.camera.CameraComponent;
+import org.egordorichev.lasttry.entity.entities.item.inventory.InventoryComponent;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
+import org.egordorichev.lasttry.entity.entities.world.World;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+import org.egordorichev.lasttry.util.geometry.Rectangle;
+
+import java.util.ArrayList;
+
+/**
+ * Prefetches chunks around cameras and players and keeps chunk memory usage inside of the budget
+ */
+public class ChunkSystem implements System {
+	/**
+	 * How often the residency budget is checked (in seconds)
+	 */
+	public static float CHECK_DELAY = 1.0f;
+	/**
+	 * How far ahead (in seconds of camera movement) chunks are prefetched
+	 */
+	public static float PREFETCH_TIME = 1.0f;
+	/**
+	 * Cameras, that keep chunks around them (and their targets) loaded
+	 */
+	private Family cameras = Engine.getFamily(CameraComponent.class, TargetComponent.class);
+	/**
+	 * Players, chunks in their simulation radius are kept loaded
+	 */
+	private Family players = Engine.getFamily(InventoryComponent.class, PositionComponent.class);
+	/**
+	 * Anchor positions, reused between checks
+	 */
+	private ArrayList<Vector2> anchors = new ArrayList<>();
+	/**
+	 * Prefetch area, reused between frames
+	 */
+	private Rectangle rect = new Rectangle(0, 0, 0, 0);
+	/**
+	 * Time since the last check
+	 */
+	private float time;
+
+	/**
+	 * Unloads cold chunks
+	 *
+	 * @param delta Time, since the last frame
+	 */
+	@Override
+	public void update(float delta) {
+		if (World.instance == null) {
+			return;
+		}
+
+		this.prefetch();
+		this.time += delta;
+
+		if (this.time < CHECK_DELAY) {
+			return;
+		}
+
+		this.time = 0;
+		int count = 0;
+
+		for (Entity entity : this.cameras.getEntities()) {
+			CameraComponent camera = entity.getComponent(CameraComponent.class);
+			TargetComponent target = entity.getComponent(TargetComponent.class);
+
+			if (target.target == null) {
+				// UI cameras do not look at the world
+				continue;
+			}
+
+			this.setAnchor(count++, camera.camera.position.x, camera.camera.position.y);
+
+			PositionComponent position = target.target.getComponent(PositionComponent.class);
+
+			if (position != null) {
+				this.setAnchor(count++, position.getX(), position.getY());
+			}
+		}
+
+		while (this.anchors.size() > count) {
+			this.anchors.remove(this.anchors.size() - 1);
+		}
+
+		World.instance.evictChunks(this.anchors);
+	}
+
+	/**
+	 * Starts loading chunks in camera view, ahead of the camera movement
+	 * and in the simulation radius of the players, so active entities do not rest on missing chunks
+	 */
+	private void prefetch() {
+		float radius = (ActivitySystem.SIMULATION_RADIUS + 1) * Chunk.SIZE;
+
+		for (Entity entity : this.players.getEntities()) {
+			PositionComponent position = entity.getComponent(PositionComponent.class);
+
+			this.rect.x = position.getX() / Block.SIZE - radius;
+			this.rect.y = position.getY() / Block.SIZE - radius;
+			this.rect.w = radius * 2;
+			this.rect.h = radius * 2;
+
+			World.instance.requestChunks(this.rect);
+		}
+
+		for (Entity entity : this.cameras.getEntities()) {
+			CameraComponent camera = entity.getComponent(CameraComponent.class);
+
+			if (entity.getComponent(TargetComponent.class).target == null) {
+				continue;
+			}
+
+			float width = camera.camera.viewportWidth / Block.SIZE;
+			float height = camera.camera.viewportHeight / Block.SIZE;
+			float x = camera.camera.position.x / Block.SIZE - width / 2;
+			float y = camera.camera.position.y / Block.SIZE - height / 2;
+
+			this.rect.x = x - 1;
+			this.rect.y = y - 1;
+			this.rect.w = width + 2;
+			this.rect.h = height + 2;
+
+			World.instance.requestChunks(this.rect);
+
+			this.rect.x += camera.velocity.x * PREFETCH_TIME / Block.SIZE;
+			this.rect.y += camera.velocity.y * PREFETCH_TIME / Block.SIZE;
+
+			World.instance.requestChunks(this.rect);
+		}
+	}
+
+	/**
+	 * Sets anchor position, reusing old vectors
+	 *
+	 * @param index Anchor index
+	 * @param x Anchor X
+	 * @param y Anchor Y
+	 */
+	private void setAnchor(int index, float x, float y) {
+		if (index < this.anchors.size()) {
+			this.anchors.get(index).set(x, y);
+		} else {
+			this.anchors.add(new Vector2(x, y));
+		}
+	}
+}
\ No newline at end of file
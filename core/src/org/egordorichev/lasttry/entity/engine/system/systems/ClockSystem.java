@@ -2,22 +2,15 @@ package org.egordorichev.lasttry.entity.engine.system.systems;
 
 import org.egordorichev.lasttry.entity.Entity;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.world.ClockComponent;
 
-import java.util.ArrayList;
-import java.util.Objects;
-
 public class ClockSystem implements System {
 	/**
 	 * List of clocks
 	 */
-	private ArrayList<Entity> entities;
-
-	public ClockSystem() {
-		this.entities = new ArrayList<>();
-	}
+	private Family family = Engine.getFamily(ClockComponent.class);
 
 	/**
 	 * Handles clock logic
@@ -26,7 +19,7 @@ public class ClockSystem implements System {
 	 */
 	@Override
 	public void update(float delta) {
-		for (Entity entity : this.entities) {
+		for (Entity entity : this.family.getEntities()) {
 			ClockComponent clock = entity.getComponent(ClockComponent.class);
 			float change = clock.speed * delta;
 
@@ -49,16 +42,4 @@ public class ClockSystem implements System {
 			}
 		}
 	}
-
-	/**
-	 * Handles adding entities
-	 *
-	 * @param message Message from the engine
-	 */
-	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(ClockComponent.class);
-		}
-	}
 }
\ No newline at end of file
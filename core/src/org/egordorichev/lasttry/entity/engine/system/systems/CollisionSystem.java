@@ -5,72 +5,89 @@ import org.egordorichev.lasttry.entity.component.PositionComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.component.physics.CollisionComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.item.tile.Block;
 import org.egordorichev.lasttry.entity.entities.world.World;
 import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
-import org.egordorichev.lasttry.util.collision.Collider;
-import org.egordorichev.lasttry.util.struct.Pair;
-import org.egordorichev.lasttry.util.struct.Pairs;
+import org.egordorichev.lasttry.util.collision.PairListener;
+import org.egordorichev.lasttry.util.collision.SpatialHash;
 
 import java.util.ArrayList;
-import java.util.Objects;
-import java.util.Set;
+import java.util.Arrays;
 
-public class CollisionSystem implements System {
+/**
+ * Keeps entities inside the world and finds entities, that touch each other
+ */
+public class CollisionSystem implements System, PairListener {
+	/**
+	 * Broadphase cell size
+	 */
+	public static float CELL_SIZE = Block.SIZE * 8;
 	/**
 	 * The list of collidable entities
 	 */
-	private ArrayList<Entity> entities = new ArrayList<>();
+	private Family family = Engine.getFamily(CollisionComponent.class, PositionComponent.class, SizeComponent.class);
+	/**
+	 * Broadphase grid, rebuilt every tick
+	 */
+	private SpatialHash grid = new SpatialHash(CELL_SIZE);
+	/**
+	 * Entities by their grid ID
+	 */
+	private Entity[] entities = new Entity[64];
 
 	@Override
 	public void update(float delta) {
 		SizeComponent worldSize = World.instance.getComponent(SizeComponent.class);
 		float width = worldSize.width * Chunk.SIZE * Block.SIZE;
 		float height = worldSize.height * Chunk.SIZE * Block.SIZE;
-		Set<Pair<Entity>> pairs = Pairs.setOf(this.entities);
-		for (Pair<Entity> pair : pairs) {
-			// Skip comparison to self
-			if (pair.same()) {
-				continue;
-			}
-			// Retrieve first entity information
-			Entity first = pair.left;
-			PositionComponent pos1 = first.getComponent(PositionComponent.class);
-			SizeComponent size1 = first.getComponent(SizeComponent.class);
-			// Skip comparison if missing the required components
-			if (pos1 == null && size1 == null) {
-				continue;
-			}
-			pos1.x = Math.max(Math.min(pos1.x, width - Block.SIZE - size1.width), Block.SIZE);
-			pos1.y = Math.max(Math.min(pos1.y, height - Block.SIZE - size1.height), Block.SIZE);
-			// Retrieve second entity information
-			Entity second = pair.right;
-			PositionComponent pos2 = second.getComponent(PositionComponent.class);
-			SizeComponent size2 = second.getComponent(SizeComponent.class);
-			// Skip comparison if missing the required components
-			if (pos1 == null || size1 == null) {
-				continue;
-			}
-			if (Collider.testAABB(pos1.x, pos1.y, size1.width, size1.height, pos2.x, pos2.y, size2.width,
-					size2.height)) {
-				// TODO: react here
-			}
+		ArrayList<Entity> list = this.family.getEntities();
+		int count = list.size();
+
+		if (count > this.entities.length) {
+			this.entities = new Entity[Math.max(count, this.entities.length * 2)];
+		}
+
+		this.grid.clear();
+
+		for (int i = 0; i < count; i++) {
+			Entity entity = list.get(i);
+			PositionComponent position = entity.getComponent(PositionComponent.class);
+			SizeComponent size = entity.getComponent(SizeComponent.class);
+
+			position.setX(Math.max(Math.min(position.getX(), width - Block.SIZE - size.width), Block.SIZE));
+			position.setY(Math.max(Math.min(position.getY(), height - Block.SIZE - size.height), Block.SIZE));
+
+			this.entities[i] = entity;
+			this.grid.add(i, position.getX(), position.getY(), size.width, size.height);
 		}
+
+		this.grid.query(this);
+
+		// Do not hold removed entities
+		Arrays.fill(this.entities, 0, count, null);
 	}
-	
-	
 
 	/**
-	 * Handles adding new enemies
+	 * Handles two entities, that touch each other
 	 *
-	 * @param message Message from the engine
+	 * @param first First entity grid ID
+	 * @param second Second entity grid ID
 	 */
 	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(CollisionComponent.class);
+	public void onPair(int first, int second) {
+		Entity a = this.entities[first];
+		Entity b = this.entities[second];
+		CollisionComponent ca = a.getComponent(CollisionComponent.class);
+		CollisionComponent cb = b.getComponent(CollisionComponent.class);
+
+		// Something moving touched a sleeping entity
+		if (ca.sleeping != cb.sleeping) {
+			ca.wake();
+			cb.wake();
 		}
+
+		// TODO: react here
 	}
 }
\ No newline at end of file
@@ -2,15 +2,12 @@ package org.egordorichev.lasttry.entity.engine.system.systems;
 
 import org.egordorichev.lasttry.entity.Entity;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.item.ItemUseComponent;
 import org.egordorichev.lasttry.entity.entities.item.inventory.InventoryComponent;
 import org.egordorichev.lasttry.entity.entities.item.inventory.ItemComponent;
 
-import java.util.ArrayList;
-import java.util.Objects;
-
 /**
  * Handles item use time and animations
  */
@@ -18,7 +15,7 @@ public class InventorySystem implements System {
 	/**
 	 * Entities with inventories
 	 */
-	private ArrayList<Entity> entities = new ArrayList<>();
+	private Family family = Engine.getFamily(InventoryComponent.class);
 
 	/**
 	 * Updates inventories
@@ -27,7 +24,7 @@ public class InventorySystem implements System {
 	 */
 	@Override
 	public void update(float delta) {
-		for (Entity entity : this.entities) {
+		for (Entity entity : this.family.getEntities()) {
 			InventoryComponent inventory = entity.getComponent(InventoryComponent.class);
 
 			for (ItemComponent item : inventory.inventory) {
@@ -38,16 +35,4 @@ public class InventorySystem implements System {
 			}
 		}
 	}
-
-	/**
-	 * Handles messages
-	 *
-	 * @param message Message from the engine
-	 */
-	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(InventoryComponent.class);
-		}
-	}
 }
\ No newline at end of file
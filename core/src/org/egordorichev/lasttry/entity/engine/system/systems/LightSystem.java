@@ -1,32 +1,41 @@
 package org.egordorichev.lasttry.entity.engine.system.systems;
 
+import org.egordorichev.lasttry.entity.engine.event.Events;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.world.World;
-import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
-import org.egordorichev.lasttry.util.log.Log;
+import org.egordorichev.lasttry.entity.entities.world.event.ChunkLoadedEvent;
+import org.egordorichev.lasttry.entity.entities.world.event.TileChangedEvent;
+import org.egordorichev.lasttry.entity.entities.world.light.LightEngine;
 
+/**
+ * Keeps world lighting up to date
+ */
 public class LightSystem implements System {
 	/**
-	 * Handles messages
-	 *
-	 * @param message Message from the engine
+	 * The light engine
 	 */
-	@Override
-	public void handleMessage(String message) {
-		if (message.startsWith("set_")) {
-			try {
-				String[] parts = message.split("_"); // Will be set block/wall x y
-				short x = Short.valueOf(parts[2]);
-				short y = Short.valueOf(parts[3]);
+	private LightEngine engine = new LightEngine();
+
+	public LightSystem() {
+		Events.subscribe(TileChangedEvent.class, event -> {
+			this.engine.updateBlock(event.x, event.y);
 
-				Chunk chunk = World.instance.getChunkFor(x, y);
-				// chunk.calculateLighting();
-				// TODO: place back
-				// REALLY SLOW!
-			} catch (Exception exception) {
-				exception.printStackTrace();
-				Log.error("Failed to recalculate light");
+			if (!event.wall) {
+				this.engine.updateColumn(event.x, event.y);
 			}
+		});
+		Events.subscribe(ChunkLoadedEvent.class, event -> this.engine.addChunk(event.chunk));
+	}
+
+	/**
+	 * Lights freshly loaded chunks
+	 *
+	 * @param delta Time, since the last frame
+	 */
+	@Override
+	public void update(float delta) {
+		if (World.instance != null) {
+			this.engine.update();
 		}
 	}
 }
\ No newline at end of file
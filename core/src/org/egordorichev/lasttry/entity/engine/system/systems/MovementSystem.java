@@ -1,119 +1,228 @@
 package org.egordorichev.lasttry.entity.engine.system.systems;
 
 import org.egordorichev.lasttry.entity.Entity;
-import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.component.ActiveComponent;
+import org.egordorichev.lasttry.entity.component.ComponentTypes;
 import org.egordorichev.lasttry.entity.component.PositionComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.component.physics.AccelerationComponent;
 import org.egordorichev.lasttry.entity.component.physics.CollisionComponent;
+import org.egordorichev.lasttry.entity.component.physics.PhysicsStore;
 import org.egordorichev.lasttry.entity.component.physics.VelocityComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
-import org.egordorichev.lasttry.entity.engine.SystemMessages;
+import org.egordorichev.lasttry.entity.engine.Family;
+import org.egordorichev.lasttry.entity.engine.event.Events;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.item.tile.Block;
 import org.egordorichev.lasttry.entity.entities.world.World;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+import org.egordorichev.lasttry.entity.entities.world.event.ChunkLoadedEvent;
+import org.egordorichev.lasttry.entity.entities.world.event.TileChangedEvent;
 import org.egordorichev.lasttry.util.collision.Collider;
-
-import java.util.ArrayList;
-import java.util.Objects;
+import org.egordorichev.lasttry.util.collision.SweepHit;
 
 /**
  * Handles entity movement and collision
  */
 public class MovementSystem implements System {
+	/**
+	 * Ticks an entity has to rest on the ground, before it falls asleep
+	 */
+	public static int SLEEP_TICKS = 30;
+	/**
+	 * Speed, below which an entity counts as resting
+	 */
+	public static float SLEEP_VELOCITY = 0.05f;
+	/**
+	 * Collision component type ID
+	 */
+	private static int COLLISION = ComponentTypes.getId(CollisionComponent.class);
+	/**
+	 * Size component type ID
+	 */
+	private static int SIZE = ComponentTypes.getId(SizeComponent.class);
 	/**
 	 * List of the entities, that move
 	 */
-	private ArrayList<Entity> entities = new ArrayList<>();
+	private Family family = Engine.getFamily(PositionComponent.class, VelocityComponent.class, AccelerationComponent.class,
+		ActiveComponent.class);
+	/**
+	 * Positions, velocities and accelerations of the moving entities
+	 */
+	private PhysicsStore store = new PhysicsStore();
+	/**
+	 * Sweep result, reused for every entity
+	 */
+	private SweepHit hit = new SweepHit();
+
+	public MovementSystem() {
+		this.family.addListener(this.store);
+		Events.subscribe(TileChangedEvent.class, event -> {
+			if (!event.wall) {
+				this.wakeIn((event.x - 1) * Block.SIZE, (event.y - 1) * Block.SIZE, Block.SIZE * 3, Block.SIZE * 3);
+			}
+		});
+
+		Events.subscribe(ChunkLoadedEvent.class, event -> {
+			// Entities might have been resting on a chunk, that was still loading
+			float size = Chunk.SIZE * Block.SIZE;
+			this.wakeIn(event.chunk.getX() * size - Block.SIZE, event.chunk.getY() * size - Block.SIZE,
+				size + Block.SIZE * 2, size + Block.SIZE * 2);
+		});
+	}
 
 	/**
 	 * Handles entity movement
+	 * Runs once per fixed tick, so velocities and accelerations are per tick values
 	 *
-	 * @param delta Time, since the last frame
+	 * @param delta Tick length
 	 */
 	@Override
 	public void update(float delta) {
-		for (Entity entity : this.entities) {
-			PositionComponent position = entity.getComponent(PositionComponent.class);
-			VelocityComponent velocity = entity.getComponent(VelocityComponent.class);
-			AccelerationComponent acceleration = entity.getComponent(AccelerationComponent.class);
-			CollisionComponent collision = entity.getComponent(CollisionComponent.class);
-
-			acceleration.y -= collision.weight;
-
-			velocity.x += acceleration.x;
-			velocity.y += acceleration.y;
-
-			position.x += velocity.x;
-
-			if (collision != null && collision.solid) {
-				if (this.collidesWithWorld(entity)) {
-					position.x -= velocity.x;
-					velocity.x = 0;
+		this.store.savePrevious();
+
+		float[] positions = this.store.positions;
+		float[] velocities = this.store.velocities;
+		float[] accelerations = this.store.accelerations;
+		Entity[] entities = this.store.entities;
+		int count = this.store.size();
+
+		for (int i = 0; i < count; i++) {
+			int x = i * 2;
+			int y = x + 1;
+			Entity entity = entities[i];
+			CollisionComponent collision = entity.getComponent(COLLISION);
+
+			if (collision != null && collision.sleeping) {
+				// Sleeping entities wake up, when something pushes them
+				if (accelerations[x] == 0 && accelerations[y] == 0 && velocities[x] == 0 && velocities[y] == 0) {
+					continue;
 				}
-			}
 
-			position.y += velocity.y;
+				collision.wake();
+			}
 
 			if (collision != null) {
-				collision.onGround = false;
+				accelerations[y] -= collision.weight;
+			}
 
-				if (collision.solid) {
-					if (this.collidesWithWorld(entity)) {
-						position.y -= velocity.y;
-						velocity.y = 0;
+			velocities[x] += accelerations[x];
+			velocities[y] += accelerations[y];
 
-						collision.onGround = true;
+			if (collision != null && collision.solid) {
+				collision.onGround = this.move(entity, x, y);
+
+				if (collision.onGround && Math.abs(velocities[x]) < SLEEP_VELOCITY && Math.abs(velocities[y]) < SLEEP_VELOCITY) {
+					if (++collision.rest >= SLEEP_TICKS) {
+						collision.sleeping = true;
+						velocities[x] = 0;
+						velocities[y] = 0;
 					}
+				} else {
+					collision.rest = 0;
+				}
+			} else {
+				if (collision != null) {
+					collision.onGround = false;
 				}
+
+				positions[x] += velocities[x];
+				positions[y] += velocities[y];
 			}
 
-			acceleration.x = 0;
-			acceleration.y = 0;
+			accelerations[x] = 0;
+			accelerations[y] = 0;
 		}
 	}
 
 	/**
-	 * Handles messages
+	 * Wakes entities in given area, so they can fall, if the ground is gone
 	 *
-	 * @param message Message from the engine
+	 * @param left Area X
+	 * @param bottom Area Y
+	 * @param width Area width
+	 * @param height Area height
 	 */
-	@Override
-	public void handleMessage(String message) {
-		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			this.entities = Engine.getEntitiesFor(VelocityComponent.class, AccelerationComponent.class);
+	private void wakeIn(float left, float bottom, float width, float height) {
+		float[] positions = this.store.positions;
+		Entity[] entities = this.store.entities;
+		int count = this.store.size();
+
+		for (int i = 0; i < count; i++) {
+			CollisionComponent collision = entities[i].getComponent(COLLISION);
+
+			if (collision == null || !collision.sleeping) {
+				continue;
+			}
+
+			SizeComponent size = entities[i].getComponent(SIZE);
+
+			if (Collider.testAABB(positions[i * 2], positions[i * 2 + 1], size.width, size.height,
+				left, bottom, width, height)) {
+				collision.wake();
+			}
 		}
 	}
 
 	/**
-	 * Checks for collision with world
+	 * Moves entity by its velocity, stopping at solid blocks and sliding along them
 	 *
-	 * @param entity Entity to check
-	 * @return If entity collides with world
+	 * @param entity Entity to move
+	 * @param x Index of its X in the store arrays
+	 * @param y Index of its Y in the store arrays
+	 * @return Entity landed on a block
 	 */
-	private boolean collidesWithWorld(Entity entity) {
-		PositionComponent position = entity.getComponent(PositionComponent.class);
-		SizeComponent size = entity.getComponent(SizeComponent.class);
-
-		short xStart = (short) (position.x / Block.SIZE);
-		short yStart = (short) (position.y / Block.SIZE);
-
-		for (short y = yStart; y < yStart + size.height / Block.SIZE + 1; y++) {
-			for (short x = xStart; x < xStart + size.width / Block.SIZE + 1; x++) {
-				String id = World.instance.getBlock(x, y);
-
-				if (id != null) {
-					Block block = (Block) Assets.items.get(id);
+	private boolean move(Entity entity, int x, int y) {
+		float[] positions = this.store.positions;
+		float[] velocities = this.store.velocities;
+		SizeComponent size = entity.getComponent(SIZE);
+		float dx = velocities[x];
+		float dy = velocities[y];
+		boolean landed = false;
+
+		// The second pass slides along the block, that was hit first
+		for (int pass = 0; pass < 2 && (dx != 0 || dy != 0); pass++) {
+			if (!World.instance.sweep(positions[x], positions[y], size.width, size.height, dx, dy, this.hit)) {
+				positions[x] += dx;
+				positions[y] += dy;
+
+				return landed;
+			}
 
-					if (block.getComponent(CollisionComponent.class).solid &&
-						Collider.testAABB(position.x, position.y, size.width - 0.5f, size.height - 0.5f,
-							x * Block.SIZE, y * Block.SIZE, Block.SIZE, Block.SIZE)) {
-						return true;
-					}
-				}
+			float rest = 1 - this.hit.time;
+
+			positions[x] = this.hit.x;
+			positions[y] = this.hit.y;
+
+			if (this.hit.normalX != 0) {
+				velocities[x] = 0;
+				dx = 0;
+				dy *= rest;
+			} else {
+				velocities[y] = 0;
+				dy = 0;
+				dx *= rest;
+				// Chunks, that are still loading, stop the entity, but are not ground to rest on
+				landed |= this.hit.normalY > 0 && this.isLoaded(this.hit.x, size.width, (int) (this.hit.y / Block.SIZE) - 1);
 			}
 		}
 
-		return false;
+		return landed;
+	}
+
+	/**
+	 * Checks, that the blocks under a box are loaded
+	 *
+	 * @param x Box X
+	 * @param width Box width
+	 * @param row Block row under the box
+	 * @return The blocks are loaded
+	 */
+	private boolean isLoaded(float x, float width, int row) {
+		short left = (short) Math.floor(x / Block.SIZE);
+		short right = (short) (Math.ceil((x + width) / Block.SIZE) - 1);
+
+		// Boxes are narrower than chunks, so checking the ends is enough
+		return !World.instance.isLoading(left, (short) row) && !World.instance.isLoading(right, (short) row);
 	}
 }
\ No newline at end of file
@@ -4,17 +4,70 @@ import org.egordorichev.lasttry.entity.engine.SystemMessages;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.world.World;
 import org.egordorichev.lasttry.entity.entities.world.WorldIO;
+import org.egordorichev.lasttry.entity.entities.world.WorldSnapshot;
+import org.egordorichev.lasttry.util.log.Log;
 
 import java.util.Objects;
+import java.util.concurrent.Future;
 
 /**
  * Handles game saving
+ * The world is snapshotted on the main thread and written on the I/O thread,
+ * so saving does not stop the game
  */
 public class SaveSystem implements System {
+	/**
+	 * Time between autosaves (in seconds), 0 disables autosave
+	 */
+	public static float AUTOSAVE_DELAY = 300.0f;
+	/**
+	 * Save in progress
+	 */
+	private Future<WorldSnapshot> save;
+	/**
+	 * Save was requested, while another one was in progress
+	 */
+	private boolean requested;
+	/**
+	 * Time since the last save
+	 */
+	private float time;
+
+	/**
+	 * Finishes saves and autosaves the world
+	 *
+	 * @param delta Time, since the last frame
+	 */
+	@Override
+	public void update(float delta) {
+		if (this.save != null && this.save.isDone()) {
+			try {
+				this.save.get().finish();
+			} catch (Exception exception) {
+				exception.printStackTrace();
+				Log.error("Failed to save world");
+			}
+
+			this.save = null;
+		}
+
+		this.time += delta;
+
+		if (AUTOSAVE_DELAY > 0 && this.time >= AUTOSAVE_DELAY) {
+			this.requested = true;
+		}
+
+		if (this.requested && this.save == null && World.instance != null) {
+			this.requested = false;
+			this.time = 0;
+			this.save = WorldIO.save(World.instance);
+		}
+	}
+
 	@Override
 	public void handleMessage(String message) {
 		if (Objects.equals(message, SystemMessages.SAVE)) {
-			WorldIO.write(World.instance);
+			this.requested = true;
 		}
 	}
 }
\ No newline at end of file
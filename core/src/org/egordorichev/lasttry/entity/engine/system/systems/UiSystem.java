@@ -3,11 +3,11 @@ package org.egordorichev.lasttry.entity.engine.system.systems;
 import org.egordorichev.lasttry.entity.Entity;
 import org.egordorichev.lasttry.entity.component.IdComponent;
 import org.egordorichev.lasttry.entity.engine.Engine;
+import org.egordorichev.lasttry.entity.engine.Family;
 import org.egordorichev.lasttry.entity.engine.SystemMessages;
 import org.egordorichev.lasttry.entity.engine.system.System;
 import org.egordorichev.lasttry.entity.entities.ui.UiElement;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Objects;
 
@@ -23,6 +23,10 @@ public class UiSystem implements System {
 	 * All in-game cameras
 	 */
 	private HashMap<String, Entity> elements;
+	/**
+	 * Entities with IDs
+	 */
+	private Family family = Engine.getFamily(IdComponent.class);
 
 	public UiSystem() {
 		instance = this;
@@ -37,10 +41,9 @@ public class UiSystem implements System {
 	@Override
 	public void handleMessage(String message) {
 		if (Objects.equals(message, SystemMessages.ENTITIES_UPDATED)) {
-			ArrayList<Entity> entities = Engine.getEntitiesFor(IdComponent.class);
 			this.elements.clear();
 
-			for (Entity entity : entities) {
+			for (Entity entity : this.family.getEntities()) {
 				this.elements.put(entity.getComponent(IdComponent.class).id, entity);
 			}
 		}
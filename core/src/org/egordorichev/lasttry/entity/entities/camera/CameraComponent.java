@@ -1,6 +1,7 @@
 package org.egordorichev.lasttry.entity.entities.camera;
 
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
 import org.egordorichev.lasttry.entity.component.Component;
 import org.egordorichev.lasttry.graphics.Display;
 
@@ -12,4 +13,16 @@ public class CameraComponent extends Component {
 	 * The camera
 	 */
 	public final OrthographicCamera camera = new OrthographicCamera(Display.WIDTH, Display.HEIGHT);
+	/**
+	 * Camera position, that is simulated every tick (the camera itself is interpolated for rendering)
+	 */
+	public final Vector2 position = new Vector2();
+	/**
+	 * Camera position at the previous tick
+	 */
+	public final Vector2 previous = new Vector2();
+	/**
+	 * Camera velocity (in pixels per second)
+	 */
+	public final Vector2 velocity = new Vector2();
 }
\ No newline at end of file
@@ -31,7 +31,7 @@ public class Creature extends Entity {
 
 		if (animation.current != null) {
 			PositionComponent position = this.getComponent(PositionComponent.class);
-			animation.current.render(position.x, position.y);
+			animation.current.render(position.getRenderX(), position.getRenderY());
 		}
 	}
 
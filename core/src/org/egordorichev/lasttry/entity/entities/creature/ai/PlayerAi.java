@@ -26,7 +26,7 @@ public class PlayerAi extends Ai {
 		CollisionComponent collision = self.getComponent(CollisionComponent.class);
 
 		if (collision.onGround && Gdx.input.isKeyPressed(Assets.keys.get("jump"))) {
-			acceleration.y += JUMP_ACCELERATION;
+			acceleration.setY(acceleration.getY() + JUMP_ACCELERATION);
 			self.become("flying");
 			return;
 		}
@@ -36,8 +36,8 @@ public class PlayerAi extends Ai {
 			self.become("walking");
 		}
 
-		velocity.x *= 0.93;
-		velocity.y *= 0.93;
+		velocity.setX(velocity.getX() * 0.93f);
+		velocity.setY(velocity.getY() * 0.93f);
 	}
 
 	public void walking(Creature self, int t) {
@@ -46,27 +46,27 @@ public class PlayerAi extends Ai {
 		CollisionComponent collision = self.getComponent(CollisionComponent.class);
 
 		if (collision.onGround && Gdx.input.isKeyPressed(Assets.keys.get("jump"))) {
-			acceleration.y += JUMP_ACCELERATION;
+			acceleration.setY(acceleration.getY() + JUMP_ACCELERATION);
 			self.become("flying");
 			return;
 		}
 
-		if (Math.abs(velocity.x) < 0.5) {
-			velocity.x = 0;
+		if (Math.abs(velocity.getX()) < 0.5) {
+			velocity.setX(0);
 			self.become("idle");
 		}
 
 		if (Gdx.input.isKeyPressed(Assets.keys.get("move_left"))) {
-			acceleration.x -= MOVE_ACCELERATION;
+			acceleration.setX(acceleration.getX() - MOVE_ACCELERATION);
 		}
 
 		if (Gdx.input.isKeyPressed(Assets.keys.get("move_right"))) {
-			acceleration.x += MOVE_ACCELERATION;
+			acceleration.setX(acceleration.getX() + MOVE_ACCELERATION);
 		}
 
-		velocity.x *= 0.93;
-		velocity.y *= 0.93;
-		velocity.x = NumberUtil.clamp(velocity.x, -3, 3);
+		velocity.setX(velocity.getX() * 0.93f);
+		velocity.setY(velocity.getY() * 0.93f);
+		velocity.setX(NumberUtil.clamp(velocity.getX(), -3, 3));
 	}
 
 	public void flying(Creature self, int t) {
@@ -80,18 +80,18 @@ public class PlayerAi extends Ai {
 		}
 
 		if (Gdx.input.isKeyPressed(Assets.keys.get("move_left"))) {
-			acceleration.x -= FLY_ACCELERATION;
+			acceleration.setX(acceleration.getX() - FLY_ACCELERATION);
 			self.become("walking");
 		}
 
 		if (Gdx.input.isKeyPressed(Assets.keys.get("move_right"))) {
-			acceleration.x += FLY_ACCELERATION;
+			acceleration.setX(acceleration.getX() + FLY_ACCELERATION);
 			self.become("walking");
 		}
 
-		velocity.x *= 0.93;
-		velocity.y *= 0.93;
+		velocity.setX(velocity.getX() * 0.93f);
+		velocity.setY(velocity.getY() * 0.93f);
 
-		velocity.y = NumberUtil.clamp(velocity.y, -10, 10);
+		velocity.setY(NumberUtil.clamp(velocity.getY(), -10, 10));
 	}
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.egordorichev.lasttry.entity.entities.item;
 
 import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.EntityPool;
 import org.egordorichev.lasttry.entity.component.PositionComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.component.TextureComponent;
@@ -14,10 +15,46 @@ import org.egordorichev.lasttry.graphics.Graphics;
  * Handles item in the world
  */
 public class ItemEntity extends Entity {
-	public ItemEntity(Item item, int count) {
+	/**
+	 * Dropped items, ready for reuse
+	 */
+	public static EntityPool<ItemEntity> pool = new EntityPool<>(ItemEntity::new, 256);
+
+	private ItemEntity() {
 		super(ItemComponent.class, PositionComponent.class, SizeComponent.class, CollisionComponent.class,
 			VelocityComponent.class, AccelerationComponent.class);
+	}
 
+	public ItemEntity(Item item, int count) {
+		this();
+		this.setItem(item, count);
+	}
+
+	public ItemEntity(Item item) {
+		this(item, 1);
+	}
+
+	/**
+	 * Returns a pooled item entity, it goes back to the pool, when removed from the engine
+	 *
+	 * @param item The item
+	 * @param count Amount of that item
+	 * @return Item entity
+	 */
+	public static ItemEntity obtain(Item item, int count) {
+		ItemEntity entity = pool.obtain();
+		entity.setItem(item, count);
+
+		return entity;
+	}
+
+	/**
+	 * Sets the item and fits the size to its texture
+	 *
+	 * @param item The item
+	 * @param count Amount of that item
+	 */
+	private void setItem(Item item, int count) {
 		ItemComponent itemComponent = this.getComponent(ItemComponent.class);
 
 		itemComponent.item = item;
@@ -30,10 +67,6 @@ public class ItemEntity extends Entity {
 		size.height = texture.texture.getRegionHeight();
 	}
 
-	public ItemEntity(Item item) {
-		this(item, 1);
-	}
-
 	/**
 	 * Renders item
 	 */
@@ -42,7 +75,7 @@ public class ItemEntity extends Entity {
 		TextureComponent texture = this.getComponent(ItemComponent.class).item.getComponent(TextureComponent.class);
 		PositionComponent position = this.getComponent(PositionComponent.class);
 
-		Graphics.batch.draw(texture.texture, position.x, position.y);
+		Graphics.batch.draw(texture.texture, position.getRenderX(), position.getRenderY());
 	}
 
 	/**
@@ -55,8 +88,8 @@ public class ItemEntity extends Entity {
 	public ItemEntity setPosition(float x, float y) {
 		PositionComponent position = this.getComponent(PositionComponent.class);
 
-		position.x = x;
-		position.y = y;
+		position.setX(x);
+		position.setY(y);
 
 		return this;
 	}
@@ -20,6 +20,15 @@ public class ItemComponent extends Component {
 	 * You can have more data here, like modifiers
 	 */
 
+	/**
+	 * Clears the holder
+	 */
+	@Override
+	public void reset() {
+		this.item = null;
+		this.count = 0;
+	}
+
 	/**
 	 * @return This holder doesn't hold any items
 	 */
@@ -83,7 +83,7 @@ public class Block extends Tile {
 	 */
 	@Override
 	protected void place(short x, short y) {
-		World.instance.setBlock(this.getComponent(IdComponent.class).id, x, y);
+		World.instance.setBlockId(this.numericId, x, y);
 		World.instance.setData(TileHelper.create(), x, y);
 	}
 
@@ -92,9 +92,9 @@ public class Block extends Tile {
 	 *
 	 * @param x Neighbor X
 	 * @param y Neighbor Y
-	 * @return It's ID
+	 * @return It's numeric ID
 	 */
-	protected String getNeighbor(short x, short y) {
-		return World.instance.getBlock(x, y);
+	protected int getNeighbor(short x, short y) {
+		return World.instance.getBlockId(x, y);
 	}
 }
\ No newline at end of file
@@ -3,7 +3,7 @@ package org.egordorichev.lasttry.entity.entities.item.tile;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector3;
 import org.egordorichev.lasttry.entity.Entity;
-import org.egordorichev.lasttry.entity.component.IdComponent;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
 import org.egordorichev.lasttry.entity.engine.system.systems.CameraSystem;
 import org.egordorichev.lasttry.entity.entities.camera.CameraComponent;
 import org.egordorichev.lasttry.entity.entities.item.Item;
@@ -13,12 +13,15 @@ import org.egordorichev.lasttry.entity.entities.item.tile.helper.TileHelper;
 import org.egordorichev.lasttry.graphics.Graphics;
 import org.egordorichev.lasttry.util.binary.BinaryPacker;
 
-import java.util.Objects;
-
 /**
  * Represents a block/wall in the world
  */
 public class Tile extends Item {
+	/**
+	 * Numeric ID, assigned by the tile registry
+	 */
+	protected short numericId;
+
 	public Tile(String id) {
 		super(id);
 
@@ -90,7 +93,7 @@ public class Tile extends Item {
 	 * @return Packed binary
 	 */
 	public int getNeighbors(short x, short y) {
-		String id = this.getComponent(IdComponent.class).id;
+		int id = this.numericId;
 
 		boolean top = this.shouldTile(this.getNeighbor(x, (short) (y + 1)), id);
 		boolean right = this.shouldTile(this.getNeighbor((short) (x + 1), y), id);
@@ -105,10 +108,10 @@ public class Tile extends Item {
 	 *
 	 * @param x Neighbor X
 	 * @param y Neighbor Y
-	 * @return It's ID
+	 * @return It's numeric ID
 	 */
-	protected String getNeighbor(short x, short y) {
-		return null;
+	protected int getNeighbor(short x, short y) {
+		return Tiles.EMPTY;
 	}
 
 	/**
@@ -128,7 +131,23 @@ public class Tile extends Item {
 	 * @param self     Self
 	 * @return Should tile
 	 */
-	protected boolean shouldTile(String neighbor, String self) {
-		return Objects.equals(neighbor, self);
+	protected boolean shouldTile(int neighbor, int self) {
+		return neighbor == self;
+	}
+
+	/**
+	 * Sets numeric ID
+	 *
+	 * @param numericId New numeric ID
+	 */
+	public void setNumericId(short numericId) {
+		this.numericId = numericId;
+	}
+
+	/**
+	 * @return Numeric ID
+	 */
+	public short getNumericId() {
+		return this.numericId;
 	}
 }
\ No newline at end of file
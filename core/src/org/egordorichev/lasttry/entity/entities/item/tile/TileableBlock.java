@@ -8,8 +8,8 @@ public class TileableBlock extends Block {
 	}
 
 	@Override
-	protected boolean shouldTile(String neighbor, String self) {
-		Block block = (Block) Assets.items.get(neighbor);
+	protected boolean shouldTile(int neighbor, int self) {
+		Block block = (Block) Assets.tiles.get(neighbor);
 		return block instanceof TileableBlock;
 	}
 }
\ No newline at end of file
@@ -14,8 +14,8 @@ public class TileableWall extends Wall {
 	 * @param self     Self
 	 * @return Should tile
 	 */
-	protected boolean shouldTile(String neighbor, String self) {
-		Wall wall = (Wall) Assets.items.get(neighbor);
+	protected boolean shouldTile(int neighbor, int self) {
+		Wall wall = (Wall) Assets.tiles.get(neighbor);
 		return wall instanceof TileableWall;
 	}
 }
\ No newline at end of file
@@ -37,7 +37,7 @@ public class Wall extends Tile {
 	 */
 	@Override
 	protected void place(short x, short y) {
-		World.instance.setWall(this.getComponent(IdComponent.class).id, x, y);
+		World.instance.setWallId(this.numericId, x, y);
 		World.instance.setData(TileHelper.create(), x, y);
 	}
 
@@ -46,9 +46,9 @@ public class Wall extends Tile {
 	 *
 	 * @param x Neighbor X
 	 * @param y Neighbor Y
-	 * @return It's ID
+	 * @return It's numeric ID
 	 */
-	protected String getNeighbor(short x, short y) {
-		return World.instance.getWall(x, y);
+	protected int getNeighbor(short x, short y) {
+		return World.instance.getWallId(x, y);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package org.egordorichev.lasttry.entity.entities.item.tile.interactable;
+
+import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.component.PositionComponent;
+import org.egordorichev.lasttry.entity.component.SizeComponent;
+import org.egordorichev.lasttry.entity.engine.FamilyListener;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
+import org.egordorichev.lasttry.entity.entities.item.tile.Tile;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+import org.egordorichev.lasttry.util.collision.Collider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Finds interactable entities under the mouse
+ * Placed interactables are kept in buckets by chunk, so a click looks up
+ * the chunk of the clicked tile and tests only the entities in it
+ * Interactable blocks are not stored here, the chunk block array already is their index
+ * Placed interactables are expected not to move
+ */
+public class InteractionIndex implements FamilyListener {
+	/**
+	 * Interactable entities by chunk key
+	 */
+	private HashMap<Long, ArrayList<Entity>> chunks = new HashMap<>();
+	/**
+	 * Chunk ranges (x0, y0, x1, y1), where entities were registered
+	 */
+	private IdentityHashMap<Entity, int[]> ranges = new IdentityHashMap<>();
+	/**
+	 * Interactables without position, they check the overlap themselves
+	 */
+	private ArrayList<Entity> unplaced = new ArrayList<>();
+
+	/**
+	 * Registers interactable entity, when it is placed
+	 *
+	 * @param entity Entity with interaction component
+	 */
+	@Override
+	public void onAdded(Entity entity) {
+		if (!(entity instanceof Interactable) || entity instanceof Tile || this.ranges.containsKey(entity)) {
+			return;
+		}
+
+		PositionComponent position = entity.getComponent(PositionComponent.class);
+		SizeComponent size = entity.getComponent(SizeComponent.class);
+
+		if (position == null || size == null) {
+			if (!this.unplaced.contains(entity)) {
+				this.unplaced.add(entity);
+			}
+
+			return;
+		}
+
+		int[] range = new int[] {
+			getChunk(position.getX()), getChunk(position.getY()),
+			getChunk(position.getX() + size.width), getChunk(position.getY() + size.height)
+		};
+
+		this.ranges.put(entity, range);
+
+		for (int y = range[1]; y <= range[3]; y++) {
+			for (int x = range[0]; x <= range[2]; x++) {
+				this.chunks.computeIfAbsent(getKey(x, y), key -> new ArrayList<>()).add(entity);
+			}
+		}
+	}
+
+	/**
+	 * Forgets interactable entity, when it is broken
+	 *
+	 * @param entity Entity to remove
+	 */
+	@Override
+	public void onRemoved(Entity entity) {
+		this.unplaced.remove(entity);
+
+		int[] range = this.ranges.remove(entity);
+
+		if (range == null) {
+			return;
+		}
+
+		for (int y = range[1]; y <= range[3]; y++) {
+			for (int x = range[0]; x <= range[2]; x++) {
+				long key = getKey(x, y);
+				ArrayList<Entity> bucket = this.chunks.get(key);
+
+				if (bucket != null) {
+					bucket.remove(entity);
+
+					if (bucket.isEmpty()) {
+						this.chunks.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns interactable entity under the point
+	 *
+	 * @param x Point X
+	 * @param y Point Y
+	 * @return Interactable or null
+	 */
+	public Interactable get(float x, float y) {
+		ArrayList<Entity> bucket = this.chunks.get(getKey(getChunk(x), getChunk(y)));
+
+		if (bucket != null) {
+			for (int i = 0; i < bucket.size(); i++) {
+				Entity entity = bucket.get(i);
+				PositionComponent position = entity.getComponent(PositionComponent.class);
+				SizeComponent size = entity.getComponent(SizeComponent.class);
+
+				if (Collider.testAABB(position.getX(), position.getY(), size.width, size.height, x, y, 1, 1)) {
+					return (Interactable) entity;
+				}
+			}
+		}
+
+		for (int i = 0; i < this.unplaced.size(); i++) {
+			Interactable interactable = (Interactable) this.unplaced.get(i);
+
+			if (interactable.checkOverlap((int) x, (int) y)) {
+				return interactable;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param coordinate World coordinate
+	 * @return Chunk coordinate
+	 */
+	private static int getChunk(float coordinate) {
+		return (int) Math.floor(coordinate / (Chunk.SIZE * Block.SIZE));
+	}
+
+	/**
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return Chunk key
+	 */
+	private static long getKey(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+}
\ No newline at end of file
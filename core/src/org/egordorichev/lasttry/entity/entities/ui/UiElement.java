@@ -20,8 +20,8 @@ public class UiElement extends Entity {
 
 		PositionComponent position = this.getComponent(PositionComponent.class);
 
-		position.x = rect.x;
-		position.y = rect.y;
+		position.setX(rect.x);
+		position.setY(rect.y);
 
 		SizeComponent size = this.getComponent(SizeComponent.class);
 
@@ -47,6 +47,6 @@ public class UiElement extends Entity {
 		// TODO: sliced sprites
 		// For hint look up this: https://docs.unity3d.com/Manual/9SliceSprites.html
 
-		Graphics.batch.draw(texture.texture, position.x, position.y, size.width, size.height);
+		Graphics.batch.draw(texture.texture, position.getX(), position.getY(), size.width, size.height);
 	}
 }
\ No newline at end of file
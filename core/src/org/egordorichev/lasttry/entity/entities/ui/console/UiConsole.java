@@ -32,14 +32,14 @@ public class UiConsole extends UiElement implements SimpleInputProcessor {
 
 		if (state.open) {
 			PositionComponent position = this.getComponent(PositionComponent.class);
-			OutlinePrinter.print(Assets.f4, "> " + state.input, (int) position.x, (int) (position.y + 7));
+			OutlinePrinter.print(Assets.f4, "> " + state.input, (int) position.getX(), (int) (position.getY() + 7));
 
 			ConsoleLinesComponent lines = this.getComponent(ConsoleLinesComponent.class);
 			float delta = Gdx.graphics.getDeltaTime();
 
 			for (int i = lines.lines.size() - 1; i >= 0; i--) {
 				ConsoleLine line = lines.lines.get(i);
-				OutlinePrinter.print(Assets.f4, line.line, (int) position.x, (int) (position.y + (i + 2) * 7));
+				OutlinePrinter.print(Assets.f4, line.line, (int) position.getX(), (int) (position.getY() + (i + 2) * 7));
 
 				line.time += delta;
 
@@ -4,6 +4,7 @@ import org.egordorichev.lasttry.entity.entities.ui.console.ConsoleCommand;
 import org.egordorichev.lasttry.entity.entities.ui.console.UiConsole;
 import org.egordorichev.lasttry.entity.entities.world.ChunksComponent;
 import org.egordorichev.lasttry.entity.entities.world.World;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
 
 public class ChunksCommand extends ConsoleCommand {
 	public ChunksCommand() {
@@ -13,6 +14,11 @@ public class ChunksCommand extends ConsoleCommand {
 	@Override
 	public void run(UiConsole console, String[] args) {
 		ChunksComponent chunks = World.instance.getComponent(ChunksComponent.class);
-		console.print(chunks.loaded.size() + "/" + chunks.chunks.length + " chunks are loaded");
+		float rate = chunks.evictions == 0 ? 0 : chunks.reloads * 100.0f / chunks.evictions;
+
+		console.print(chunks.loaded.size() + "/" + chunks.chunks.length + " chunks are loaded ("
+			+ chunks.loaded.size() * Chunk.getMemorySize() / 1024 + " KB)");
+		console.print(chunks.loads + " chunks were loaded, " + chunks.reloads + " of them after unloading");
+		console.print(chunks.evictions + " chunks were unloaded, " + String.format("%.1f", rate) + "% of them were needed again");
 	}
 }
\ No newline at end of file
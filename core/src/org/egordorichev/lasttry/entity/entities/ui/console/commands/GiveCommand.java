@@ -50,13 +50,13 @@ public class GiveCommand extends ConsoleCommand {
 
 		if (player != null) {
 			PositionComponent position = player.getComponent(PositionComponent.class);
-			Entity entity = new ItemEntity(item, count);
+			Entity entity = ItemEntity.obtain(item, count);
 			PositionComponent entityPosition = entity.getComponent(PositionComponent.class);
 
-			entityPosition.x = position.x;
-			entityPosition.y = position.y;
+			entityPosition.setX(position.getX());
+			entityPosition.setY(position.getY());
 
-			Engine.addEntity(entity);
+			Engine.getCommands().add(entity);
 		}
 	}
 }
\ No newline at end of file
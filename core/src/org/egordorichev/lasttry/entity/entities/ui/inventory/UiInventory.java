@@ -40,7 +40,7 @@ public class UiInventory extends UiElement implements SimpleInputProcessor {
 			layout = new GlyphLayout();
 		}
 
-		this.components.put(InventoryComponent.class, inventory);
+		this.setComponent(InventoryComponent.class, inventory);
 		Input.multiplexer.addProcessor(this);
 	}
 
@@ -67,7 +67,7 @@ public class UiInventory extends UiElement implements SimpleInputProcessor {
 		InventoryComponent inventory = this.getComponent(InventoryComponent.class);
 
 		for (int i = 0; i < (inventory.open ? inventory.inventory.length : Math.min(inventory.inventory.length, 10)); i++) {
-			UiInventory.renderSlot(inventory, position.x + i % 10 * 25, (float) (position.y + Math.floor(i / 10) * 25), i, inventory.inventory[i]);
+			UiInventory.renderSlot(inventory, position.getX() + i % 10 * 25, (float) (position.getY() + Math.floor(i / 10) * 25), i, inventory.inventory[i]);
 		}
 	}
 
@@ -1,16 +1,38 @@
 package org.egordorichev.lasttry.entity.entities.world;
 
+import com.badlogic.gdx.math.Vector2;
 import org.egordorichev.lasttry.entity.Entity;
+import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
 import org.egordorichev.lasttry.entity.component.IdComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
-import org.egordorichev.lasttry.entity.engine.Engine;
+import org.egordorichev.lasttry.entity.engine.event.Events;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
 import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
 import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkIO;
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkLoader;
+import org.egordorichev.lasttry.entity.entities.world.event.ChunkLoadedEvent;
+import org.egordorichev.lasttry.entity.entities.world.event.ChunkUnloadedEvent;
+import org.egordorichev.lasttry.entity.entities.world.event.TileChangedEvent;
+import org.egordorichev.lasttry.util.collision.SweepHit;
+import org.egordorichev.lasttry.util.geometry.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 
 /**
  * Handles chunks
  */
 public class ChunkManager extends Entity {
+	/**
+	 * Loads chunks in the background
+	 */
+	protected ChunkLoader loader = new ChunkLoader();
+	/**
+	 * Chunks, that finished loading this frame
+	 */
+	private ArrayList<Chunk> installed = new ArrayList<>();
+
 	public ChunkManager() {
 		super(SizeComponent.class);
 
@@ -30,16 +52,27 @@ public class ChunkManager extends Entity {
 	 * @return Block ID at given position
 	 */
 	public String getBlock(short x, short y) {
+		return Assets.tiles.getName(this.getBlockId(x, y));
+	}
+
+	/**
+	 * Returns numeric block ID at given position in world
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return Numeric block ID at given position (Tiles.EMPTY, while the chunk is loading)
+	 */
+	public int getBlockId(short x, short y) {
 		if (this.isOut(x, y)) {
-			return null;
+			return Tiles.EMPTY;
 		}
 
-		Chunk chunk = this.getChunkFor(x, y);
+		Chunk chunk = this.requestChunkFor(x, y);
 
 		if (chunk == null) {
-			return null;
+			return Tiles.EMPTY;
 		} else {
-			return chunk.getBlock(chunk.toRelativeX(x), chunk.toRelativeY(y));
+			return chunk.getBlockId(chunk.toRelativeX(x), chunk.toRelativeY(y));
 		}
 	}
 
@@ -51,6 +84,17 @@ public class ChunkManager extends Entity {
 	 * @param y Block Y
 	 */
 	public void setBlock(String value, short x, short y) {
+		this.setBlockId(Assets.tiles.getId(value), x, y);
+	}
+
+	/**
+	 * Sets numeric block ID at given position in world
+	 *
+	 * @param value New numeric block ID
+	 * @param x Block X
+	 * @param y Block Y
+	 */
+	public void setBlockId(int value, short x, short y) {
 		if (this.isOut(x, y)) {
 			return;
 		}
@@ -58,8 +102,13 @@ public class ChunkManager extends Entity {
 		Chunk chunk = this.getChunkFor(x, y);
 
 		if (chunk != null) {
-			Engine.sendMessage("set_block_" + x + "_" + y);
-			chunk.setBlock(value, chunk.toRelativeX(x), chunk.toRelativeY(y));
+			chunk.setBlockId(value, chunk.toRelativeX(x), chunk.toRelativeY(y));
+
+			TileChangedEvent event = Events.obtain(TileChangedEvent.class);
+			event.x = x;
+			event.y = y;
+			event.wall = false;
+			Events.post(event);
 		}
 	}
 
@@ -71,16 +120,27 @@ public class ChunkManager extends Entity {
 	 * @return Wall ID at given position
 	 */
 	public String getWall(short x, short y) {
+		return Assets.tiles.getName(this.getWallId(x, y));
+	}
+
+	/**
+	 * Returns numeric wall ID at given position in world
+	 *
+	 * @param x Wall X
+	 * @param y Wall Y
+	 * @return Numeric wall ID at given position (Tiles.EMPTY, while the chunk is loading)
+	 */
+	public int getWallId(short x, short y) {
 		if (this.isOut(x, y)) {
-			return null;
+			return Tiles.EMPTY;
 		}
 
-		Chunk chunk = this.getChunkFor(x, y);
+		Chunk chunk = this.requestChunkFor(x, y);
 
 		if (chunk == null) {
-			return null;
+			return Tiles.EMPTY;
 		} else {
-			return chunk.getWall(chunk.toRelativeX(x), chunk.toRelativeY(y));
+			return chunk.getWallId(chunk.toRelativeX(x), chunk.toRelativeY(y));
 		}
 	}
 
@@ -92,6 +152,17 @@ public class ChunkManager extends Entity {
 	 * @param y Wall Y
 	 */
 	public void setWall(String value, short x, short y) {
+		this.setWallId(Assets.tiles.getId(value), x, y);
+	}
+
+	/**
+	 * Sets numeric wall ID at given position in world
+	 *
+	 * @param value New numeric wall ID
+	 * @param x Wall X
+	 * @param y Wall Y
+	 */
+	public void setWallId(int value, short x, short y) {
 		if (this.isOut(x, y)) {
 			return;
 		}
@@ -99,8 +170,13 @@ public class ChunkManager extends Entity {
 		Chunk chunk = this.getChunkFor(x, y);
 
 		if (chunk != null) {
-			Engine.sendMessage("set_wall_" + x + "_" + y);
-			chunk.setWall(value, chunk.toRelativeX(x), chunk.toRelativeY(y));
+			chunk.setWallId(value, chunk.toRelativeX(x), chunk.toRelativeY(y));
+
+			TileChangedEvent event = Events.obtain(TileChangedEvent.class);
+			event.x = x;
+			event.y = y;
+			event.wall = true;
+			Events.post(event);
 		}
 	}
 
@@ -116,7 +192,7 @@ public class ChunkManager extends Entity {
 			return 1.0f;
 		}
 
-		Chunk chunk = this.getChunkFor(x, y);
+		Chunk chunk = this.requestChunkFor(x, y);
 
 		if (chunk == null) {
 			return 1.0f;
@@ -156,7 +232,7 @@ public class ChunkManager extends Entity {
 			return 0;
 		}
 
-		Chunk chunk = this.getChunkFor(x, y);
+		Chunk chunk = this.requestChunkFor(x, y);
 
 		if (chunk == null) {
 			return 0;
@@ -198,13 +274,40 @@ public class ChunkManager extends Entity {
 
 	/**
 	 * Returns chunk, that contains given block
+	 * Waits for the chunk to load, if needed
 	 *
 	 * @param x Block X
 	 * @param y Block Y
 	 * @return The chunk
 	 */
 	public Chunk getChunkFor(int x, int y) {
-		int index = this.getChunkIndex((int) Math.floor(x / Chunk.SIZE), (int) Math.floor(y / Chunk.SIZE));
+		return this.getChunkFor(x, y, true);
+	}
+
+	/**
+	 * Returns chunk, that contains given block
+	 * Never blocks: if the chunk is not loaded, it starts loading in the background
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return The chunk or null, if it is not loaded yet
+	 */
+	public Chunk requestChunkFor(int x, int y) {
+		return this.getChunkFor(x, y, false);
+	}
+
+	/**
+	 * Returns chunk, that contains given block
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @param wait Wait for the chunk to load
+	 * @return The chunk or null
+	 */
+	private Chunk getChunkFor(int x, int y, boolean wait) {
+		short cx = (short) Math.floor(x / Chunk.SIZE);
+		short cy = (short) Math.floor(y / Chunk.SIZE);
+		int index = this.getChunkIndex(cx, cy);
 
 		ChunksComponent chunks = this.getComponent(ChunksComponent.class);
 
@@ -212,19 +315,265 @@ public class ChunkManager extends Entity {
 			return null;
 		}
 
-		if (chunks.chunks[index] == null) {
-			short cx = (short) Math.floor(x / Chunk.SIZE);
-			short cy = (short) Math.floor(y / Chunk.SIZE);
+		Chunk chunk = chunks.chunks[index];
+
+		if (chunk == null) {
+			if (this.loader.request(this.getFolder(), index, cx, cy)) {
+				chunks.loads++;
+
+				if (chunks.evicted[index]) {
+					chunks.reloads++;
+				}
+			}
+
+			if (!wait) {
+				return null;
+			}
+
+			chunk = this.loader.await(index);
+			this.installChunk(chunk);
+		}
+
+		if (chunk != null) {
+			chunk.touch(++chunks.accesses);
+		}
+
+		return chunk;
+	}
 
-			this.loadChunk(cx, cy);
-			// chunks.chunks[index].calculateLighting();
+	/**
+	 * Starts loading all chunks in given area
+	 *
+	 * @param rect Area in blocks
+	 */
+	public void requestChunks(Rectangle rect) {
+		SizeComponent size = this.getComponent(SizeComponent.class);
 
-			Engine.sendMessage("load_chunk_" + cx + "_" + cy);
+		int startX = (int) Math.max(0, Math.floor(rect.x / Chunk.SIZE));
+		int startY = (int) Math.max(0, Math.floor(rect.y / Chunk.SIZE));
+		int endX = (int) Math.min(size.width - 1, Math.floor((rect.x + rect.w) / Chunk.SIZE));
+		int endY = (int) Math.min(size.height - 1, Math.floor((rect.y + rect.h) / Chunk.SIZE));
 
-			return chunks.chunks[index];
+		for (int cy = startY; cy <= endY; cy++) {
+			for (int cx = startX; cx <= endX; cx++) {
+				this.requestChunkFor(cx * Chunk.SIZE, cy * Chunk.SIZE);
+			}
 		}
+	}
 
-		return chunks.chunks[index];
+	/**
+	 * Installs chunks, that finished loading in the background
+	 * Must be called on the main thread
+	 */
+	public void installLoadedChunks() {
+		this.installed.clear();
+		this.loader.poll(this.installed);
+
+		for (Chunk chunk : this.installed) {
+			this.installChunk(chunk);
+		}
+	}
+
+	/**
+	 * Puts loaded chunk into the chunk array
+	 *
+	 * @param chunk Loaded chunk
+	 */
+	private void installChunk(Chunk chunk) {
+		if (chunk == null) {
+			return;
+		}
+
+		ChunksComponent chunks = this.getComponent(ChunksComponent.class);
+		short x = chunk.getX();
+		short y = chunk.getY();
+		int index = this.getChunkIndex(x, y);
+
+		if (chunks.chunks[index] != null) {
+			return;
+		}
+
+		chunks.loaded.add(chunk);
+		chunks.chunks[index] = chunk;
+
+		ChunkLoadedEvent event = Events.obtain(ChunkLoadedEvent.class);
+		event.chunk = chunk;
+		Events.post(event);
+	}
+
+	/**
+	 * Returns true, if given position is inside of a chunk, that is still loading
+	 * Starts loading the chunk, if it was not requested yet
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return True, if the block is not available yet
+	 */
+	public boolean isLoading(short x, short y) {
+		if (this.isOut(x, y) || this.requestChunkFor(x, y) != null) {
+			return false;
+		}
+
+		return this.loader.isLoading(this.getChunkIndex(x / Chunk.SIZE, y / Chunk.SIZE));
+	}
+
+	/**
+	 * Checks, if there is any solid block in given area
+	 * Missing chunks are requested, and count as solid only while they are loading,
+	 * so entities do not fall into them
+	 *
+	 * @param x0 Start block X
+	 * @param y0 Start block Y
+	 * @param x1 End block X (inclusive)
+	 * @param y1 End block Y (inclusive)
+	 * @return There is a solid block
+	 */
+	public boolean hasSolid(int x0, int y0, int x1, int y1) {
+		SizeComponent size = this.getComponent(SizeComponent.class);
+		ChunksComponent chunks = this.getComponent(ChunksComponent.class);
+
+		x0 = Math.max(x0, 0);
+		y0 = Math.max(y0, 0);
+		x1 = (int) Math.min(x1, size.width * Chunk.SIZE - 1);
+		y1 = (int) Math.min(y1, size.height * Chunk.SIZE - 1);
+
+		if (x0 > x1 || y0 > y1) {
+			return false;
+		}
+
+		for (int cy = y0 / Chunk.SIZE; cy <= y1 / Chunk.SIZE; cy++) {
+			for (int cx = x0 / Chunk.SIZE; cx <= x1 / Chunk.SIZE; cx++) {
+				int index = this.getChunkIndex(cx, cy);
+				int ox = cx * Chunk.SIZE;
+				int oy = cy * Chunk.SIZE;
+				Chunk chunk = chunks.chunks[index];
+
+				if (chunk == null) {
+					this.requestChunkFor(ox, oy);
+
+					if (this.loader.isLoading(index)) {
+						return true;
+					}
+
+					continue;
+				}
+
+				chunk.touch(++chunks.accesses);
+
+				if (chunk.hasSolid(x0 - ox, y0 - oy, x1 - ox, y1 - oy)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Moves a box along the block grid and finds the first solid block it hits
+	 * Walks the grid with DDA: every step enters the next column or row of blocks,
+	 * whichever the leading edge reaches first, and only that strip is tested,
+	 * so fast boxes can not skip blocks, and blocks, that the box already overlaps, are ignored
+	 *
+	 * @param x Box X
+	 * @param y Box Y
+	 * @param width Box width
+	 * @param height Box height
+	 * @param dx Move X
+	 * @param dy Move Y
+	 * @param hit Filled with time of impact, normal and contact position
+	 * @return The box hits a solid block
+	 */
+	public boolean sweep(float x, float y, float width, float height, float dx, float dy, SweepHit hit) {
+		int stepX = (int) Math.signum(dx);
+		int stepY = (int) Math.signum(dy);
+
+		// Columns and rows, that the leading edges are in
+		int column = stepX > 0 ? (int) Math.ceil((x + width) / Block.SIZE) - 1 : (int) Math.floor(x / Block.SIZE);
+		int row = stepY > 0 ? (int) Math.ceil((y + height) / Block.SIZE) - 1 : (int) Math.floor(y / Block.SIZE);
+
+		// Move time, when the leading edges cross into the next column and row
+		float nextX = Float.POSITIVE_INFINITY;
+		float nextY = Float.POSITIVE_INFINITY;
+		float deltaX = Float.POSITIVE_INFINITY;
+		float deltaY = Float.POSITIVE_INFINITY;
+
+		if (stepX != 0) {
+			float edge = stepX > 0 ? (column + 1) * Block.SIZE - (x + width) : column * Block.SIZE - x;
+
+			nextX = edge / dx;
+			deltaX = Block.SIZE / Math.abs(dx);
+		}
+
+		if (stepY != 0) {
+			float edge = stepY > 0 ? (row + 1) * Block.SIZE - (y + height) : row * Block.SIZE - y;
+
+			nextY = edge / dy;
+			deltaY = Block.SIZE / Math.abs(dy);
+		}
+
+		while (Math.min(nextX, nextY) <= 1) {
+			// On a tie both edges cross at once, and the diagonal cell has to be tested too
+			boolean crossX = nextX <= nextY;
+			boolean crossY = nextY <= nextX;
+			float time = Math.min(nextX, nextY);
+			float bx = x + dx * time;
+			float by = y + dy * time;
+
+			// Blocks, that the box spans at the time of the crossing
+			int bottom = (int) Math.floor(by / Block.SIZE);
+			int top = (int) Math.ceil((by + height) / Block.SIZE) - 1;
+			int left = (int) Math.floor(bx / Block.SIZE);
+			int right = (int) Math.ceil((bx + width) / Block.SIZE) - 1;
+
+			if (crossX) {
+				column += stepX;
+				nextX += deltaX;
+			}
+
+			if (crossY) {
+				row += stepY;
+				nextY += deltaY;
+			}
+
+			if (crossX && this.hasSolid(column, bottom, column, top)) {
+				hit.time = time;
+				hit.normalX = -stepX;
+				hit.normalY = 0;
+				hit.x = stepX > 0 ? column * Block.SIZE - width : (column + 1) * Block.SIZE;
+				hit.y = by;
+
+				return true;
+			}
+
+			// A box, that hits a block corner exactly, lands on it
+			if (crossY && (this.hasSolid(left, row, right, row) || (crossX && this.hasSolid(column, row, column, row)))) {
+				hit.time = time;
+				hit.normalX = 0;
+				hit.normalY = -stepY;
+				hit.x = bx;
+				hit.y = stepY > 0 ? row * Block.SIZE - height : (row + 1) * Block.SIZE;
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns chunk, that contains given block, without loading it
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return The chunk or null, if it is not loaded
+	 */
+	public Chunk getLoadedChunkFor(int x, int y) {
+		if (this.isOut((short) x, (short) y)) {
+			return null;
+		}
+
+		return this.getComponent(ChunksComponent.class).chunks[this.getChunkIndex(x / Chunk.SIZE, y / Chunk.SIZE)];
 	}
 
 	/**
@@ -239,13 +588,99 @@ public class ChunkManager extends Entity {
 		return x < 0 || y < 0 || x > size.width * Chunk.SIZE - 1 || y > size.height * Chunk.SIZE -1;
 	}
 
-	protected void loadChunk(short x, short y) {
-		String id = "data/worlds/" + this.getComponent(IdComponent.class).id.replace(':', '/');
 
+	/**
+	 * Saves (if needed) and unloads a chunk
+	 *
+	 * @param chunk Chunk to unload
+	 */
+	public void unloadChunk(Chunk chunk) {
 		ChunksComponent chunks = this.getComponent(ChunksComponent.class);
-		Chunk chunk = ChunkIO.load(id, x, y);
+		short x = chunk.getX();
+		short y = chunk.getY();
+		int index = this.getChunkIndex(x, y);
 
-		chunks.loaded.add(chunk);
-		chunks.chunks[this.getChunkIndex(x, y)] = chunk;
+		if (chunk.isDirty()) {
+			ChunkIO.save(this.getFolder(), chunk);
+		}
+
+		chunks.loaded.remove(chunk);
+		chunks.chunks[index] = null;
+		chunks.evicted[index] = true;
+		chunks.evictions++;
+
+		ChunkUnloadedEvent event = Events.obtain(ChunkUnloadedEvent.class);
+		event.chunk = chunk;
+		Events.post(event);
+	}
+
+	/**
+	 * Unloads least recently used chunks, until the residency budget is met
+	 * Chunks near anchors are never unloaded
+	 *
+	 * @param anchors Camera and player positions (in pixels)
+	 * @return Amount of unloaded chunks
+	 */
+	public int evictChunks(ArrayList<Vector2> anchors) {
+		ChunksComponent chunks = this.getComponent(ChunksComponent.class);
+		int over = this.getOverBudget(chunks);
+
+		if (over <= 0) {
+			return 0;
+		}
+
+		ArrayList<Chunk> candidates = new ArrayList<>(chunks.loaded);
+		candidates.sort(Comparator.comparingLong(Chunk::getLastAccess));
+
+		int evicted = 0;
+		float radius = (chunks.keepRadius + 0.5f) * Chunk.SIZE * Block.SIZE;
+
+		for (Chunk chunk : candidates) {
+			if (evicted >= over) {
+				break;
+			}
+
+			float x = (chunk.getX() + 0.5f) * Chunk.SIZE * Block.SIZE;
+			float y = (chunk.getY() + 0.5f) * Chunk.SIZE * Block.SIZE;
+			boolean keep = false;
+
+			for (Vector2 anchor : anchors) {
+				if (Math.abs(anchor.x - x) <= radius && Math.abs(anchor.y - y) <= radius) {
+					keep = true;
+					break;
+				}
+			}
+
+			if (!keep) {
+				this.unloadChunk(chunk);
+				evicted++;
+			}
+		}
+
+		return evicted;
+	}
+
+	/**
+	 * Returns how many chunks should be unloaded to meet the budget
+	 *
+	 * @param chunks Chunks component
+	 * @return Amount of chunks over the budget
+	 */
+	private int getOverBudget(ChunksComponent chunks) {
+		int over = chunks.loaded.size() - chunks.maxLoaded;
+
+		if (chunks.maxBytes > 0) {
+			long limit = chunks.maxBytes / Chunk.getMemorySize();
+			over = (int) Math.max(over, chunks.loaded.size() - limit);
+		}
+
+		return over;
+	}
+
+	/**
+	 * @return Folder with chunk files
+	 */
+	protected String getFolder() {
+		return "data/worlds/" + this.getComponent(IdComponent.class).id.replace(':', '/');
 	}
 }
\ No newline at end of file
@@ -18,6 +18,38 @@ public class ChunksComponent extends Component {
 	 * List of loaded chunks
 	 */
 	public ArrayList<Chunk> loaded;
+	/**
+	 * Max amount of chunks in memory
+	 */
+	public int maxLoaded = 64;
+	/**
+	 * Max memory for chunk data in bytes (0 means no limit)
+	 */
+	public long maxBytes = 0;
+	/**
+	 * Radius (in chunks) around cameras and players, that is never unloaded
+	 */
+	public int keepRadius = 2;
+	/**
+	 * Chunk access counter, used for finding least recently used chunks
+	 */
+	public long accesses;
+	/**
+	 * Amount of chunk loads
+	 */
+	public long loads;
+	/**
+	 * Amount of loads of chunks, that were unloaded before (evictions, that the cache regrets)
+	 */
+	public long reloads;
+	/**
+	 * Amount of unloaded chunks
+	 */
+	public long evictions;
+	/**
+	 * Chunks, that were unloaded at least once
+	 */
+	public boolean[] evicted;
 
 	/**
 	 * Inits the component
@@ -26,6 +58,7 @@ public class ChunksComponent extends Component {
 		SizeComponent info = this.entity.getComponent(SizeComponent.class);
 
 		this.chunks = new Chunk[(int) (info.width * info.height)];
+		this.evicted = new boolean[this.chunks.length];
 		this.loaded = new ArrayList<>();
 	}
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.egordorichev.lasttry.entity.entities.world;
 
 import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
 import org.egordorichev.lasttry.entity.component.IdComponent;
 import org.egordorichev.lasttry.entity.component.SizeComponent;
 import org.egordorichev.lasttry.entity.entities.item.tile.Block;
@@ -39,22 +40,22 @@ public class World extends ChunkManager {
 
 		for (short x = (short) rect.x; x < (short) (rect.x + rect.w); x++) {
 			for (short y = (short) rect.y; y < (short) (rect.y + rect.h); y++) {
-				String blockId = this.getBlock(x, y);
+				int blockId = this.getBlockId(x, y);
 				Block block = null;
 				int neighbors = 15;
 				float light = this.getLight(x, y);
 				int data = this.getData(x, y);
 
-				if (blockId != null) {
-					block = (Block) Assets.items.get(blockId);
+				if (blockId != Tiles.EMPTY) {
+					block = (Block) Assets.tiles.get(blockId);
 					neighbors = block.getNeighbors(x, y);
 				}
 
-				if (blockId == null || neighbors != 15) {
-					String wallId = this.getWall(x, y);
+				if (blockId == Tiles.EMPTY || neighbors != 15) {
+					int wallId = this.getWallId(x, y);
 
-					if (wallId != null) {
-						Wall wall = (Wall) Assets.items.get(wallId);
+					if (wallId != Tiles.EMPTY) {
+						Wall wall = (Wall) Assets.tiles.get(wallId);
 						wall.render(x, y, data, light);
 					}
 				}
@@ -68,9 +69,10 @@ public class World extends ChunkManager {
 
 	/**
 	 * Returns highest block Y at given X
+	 * Only loaded chunks are checked, so it never waits for chunk loading
 	 *
 	 * @param x Block X
-	 * @return Returns highest block Y at given X
+	 * @return Returns highest block Y at given X (in the loaded chunks)
 	 */
 	public short getHighest(short x) {
 		SizeComponent size = this.getComponent(SizeComponent.class);
@@ -79,9 +81,16 @@ public class World extends ChunkManager {
 			return 0;
 		}
 
-		for (short y = (short) (size.height * Chunk.SIZE); y >= 0; y--) {
-			if (this.getBlock(x, y) != null) {
-				return y;
+		// Every chunk keeps its own heightmap, so only chunk rows are walked
+		for (int cy = (int) size.height - 1; cy >= 0; cy--) {
+			Chunk chunk = this.getLoadedChunkFor(x, cy * Chunk.SIZE);
+
+			if (chunk != null) {
+				short y = chunk.getHighest(chunk.toRelativeX(x));
+
+				if (y >= 0) {
+					return (short) (cy * Chunk.SIZE + y);
+				}
 			}
 		}
 
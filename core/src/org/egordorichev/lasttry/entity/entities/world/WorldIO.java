@@ -13,11 +13,15 @@ import org.egordorichev.lasttry.entity.engine.Engine;
 import org.egordorichev.lasttry.entity.entities.creature.SaveComponent;
 import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
 import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkIO;
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkLoader;
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkSnapshot;
 import org.egordorichev.lasttry.entity.entities.world.generator.WorldGenerator;
 import org.egordorichev.lasttry.util.log.Log;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.concurrent.Future;
 
 public class WorldIO extends IO<World> {
 	/**
@@ -26,11 +30,43 @@ public class WorldIO extends IO<World> {
 	public static byte VERSION = 0;
 
 	/**
-	 * Saves world
+	 * Saves world and waits for the save to finish
 	 *
 	 * @param world World to save
 	 */
 	public static void write(World world) {
+		try {
+			save(world).get().finish();
+		} catch (Exception exception) {
+			exception.printStackTrace();
+			Log.error("Failed to save world");
+		}
+	}
+
+	/**
+	 * Starts saving world on the I/O thread
+	 * Only the snapshot is taken on the calling thread
+	 *
+	 * @param world World to save
+	 * @return Save in progress, call finish() on the main thread, when it is done
+	 */
+	public static Future<WorldSnapshot> save(World world) {
+		WorldSnapshot snapshot = snapshot(world);
+
+		return ChunkLoader.getExecutor().submit(() -> {
+			snapshot.write();
+			return snapshot;
+		});
+	}
+
+	/**
+	 * Captures saveable components and dirty chunks
+	 * Chunk data is copy-on-write, so this is cheap
+	 *
+	 * @param world World to capture
+	 * @return World snapshot
+	 */
+	public static WorldSnapshot snapshot(World world) {
 		String id = world.getComponent(IdComponent.class).id;
 		String[] pieces = id.split(":");
 
@@ -40,8 +76,10 @@ public class WorldIO extends IO<World> {
 
 		Log.info("Saving world " + name + ":" + type);
 
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
 		try {
-			FileWriter writer = new FileWriter(root + "/world.wld");
+			FileWriter writer = new FileWriter(stream);
 			ArrayList<Entity> entities = Engine.getEntitiesFor(SaveComponent.class);
 
 			writer.writeInt32(entities.size());
@@ -69,11 +107,21 @@ public class WorldIO extends IO<World> {
 			Log.error("Failed to write world " + name + ":" + type);
 		}
 
+		ArrayList<ChunkSnapshot> chunks = new ArrayList<>();
+		int loaded = 0;
+
+		// Only chunks, that were changed since the last save, are written
 		for (Chunk chunk : world.getComponent(ChunksComponent.class).chunks) {
 			if (chunk != null) {
-				ChunkIO.write(root, chunk);
+				loaded++;
+
+				if (chunk.isDirty()) {
+					chunks.add(chunk.snapshot());
+				}
 			}
 		}
+
+		return new WorldSnapshot(root, id, stream.toByteArray(), chunks, loaded);
 	}
 
 	/**
@@ -86,12 +134,14 @@ public class WorldIO extends IO<World> {
 	public static World load(String name, String type) {
 		Log.info("Loading world " + name + ":" + type);
 		createFolders(name);
+		ChunkIO.migrate("data/worlds/" + name + "/" + type);
 
 		try {
 			FileReader reader = new FileReader("data/worlds/" + name + "/" + type + "/world.wld");
 			World world = new World(name, type);
 
 			int count = reader.readInt32();
+			ArrayList<Entity> entities = new ArrayList<>(count);
 
 			for (int i = 0; i < count + 1; i++) {
 				Entity entity = null;
@@ -112,11 +162,14 @@ public class WorldIO extends IO<World> {
 				}
 
 				if (entity != world) {
-					Engine.addEntity(entity);
+					entities.add(entity);
 				}
 			}
 
 			reader.close();
+
+			// One batch, instead of resorting the entity list for every creature
+			Engine.addEntities(entities);
 			return world;
 		} catch (FileNotFoundException exception) {
 			World world = generate(name, type);
@@ -0,0 +1,85 @@
+package org.egordorichev.lasttry.entity.entities.world;
+
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkIO;
+import org.egordorichev.lasttry.entity.entities.world.chunk.ChunkSnapshot;
+import org.egordorichev.lasttry.util.log.Log;
+
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+
+/**
+ * World state, captured on the main thread for saving
+ * Writing can happen on any thread, while the game keeps running
+ */
+public class WorldSnapshot {
+	/**
+	 * World save folder
+	 */
+	private String root;
+	/**
+	 * World name (for logging)
+	 */
+	private String name;
+	/**
+	 * Serialized saveable components
+	 */
+	private byte[] entities;
+	/**
+	 * Dirty chunks
+	 */
+	private ArrayList<ChunkSnapshot> chunks;
+	/**
+	 * Amount of loaded chunks
+	 */
+	private int loaded;
+	/**
+	 * Chunks, that were written successfully
+	 */
+	private ArrayList<ChunkSnapshot> written = new ArrayList<>();
+	/**
+	 * Time, spent writing (in ms)
+	 */
+	private long time;
+
+	public WorldSnapshot(String root, String name, byte[] entities, ArrayList<ChunkSnapshot> chunks, int loaded) {
+		this.root = root;
+		this.name = name;
+		this.entities = entities;
+		this.chunks = chunks;
+		this.loaded = loaded;
+	}
+
+	/**
+	 * Encodes and writes the snapshot to disk
+	 */
+	public void write() {
+		long start = System.nanoTime();
+
+		try (FileOutputStream stream = new FileOutputStream(this.root + "/world.wld")) {
+			stream.write(this.entities);
+		} catch (Exception exception) {
+			exception.printStackTrace();
+			Log.error("Failed to write world " + this.name);
+		}
+
+		for (ChunkSnapshot chunk : this.chunks) {
+			if (ChunkIO.write(this.root, chunk)) {
+				this.written.add(chunk);
+			}
+		}
+
+		this.time = (System.nanoTime() - start) / 1000000;
+	}
+
+	/**
+	 * Marks written chunks as saved
+	 * Should be called from the main thread, after write()
+	 */
+	public void finish() {
+		for (ChunkSnapshot chunk : this.written) {
+			chunk.markSaved();
+		}
+
+		Log.info("Saved " + this.written.size() + "/" + this.loaded + " chunks of " + this.name + " in " + this.time + " ms");
+	}
+}
\ No newline at end of file
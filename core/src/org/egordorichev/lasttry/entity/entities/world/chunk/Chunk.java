@@ -1,12 +1,10 @@
 package org.egordorichev.lasttry.entity.entities.world.chunk;
 
-import com.badlogic.gdx.math.Vector2;
 import org.egordorichev.lasttry.entity.Entity;
 import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
 import org.egordorichev.lasttry.entity.component.PositionComponent;
 import org.egordorichev.lasttry.entity.entities.item.tile.Block;
-import org.egordorichev.lasttry.entity.entities.world.World;
-import org.egordorichev.lasttry.util.log.Log;
 
 /**
  * Handles blocks
@@ -24,39 +22,104 @@ public class Chunk extends Entity {
 	 */
 	public static short SIZE = 32;
 	/**
-	 * Block ID's
+	 * Numeric block ID's (see Assets.tiles)
 	 */
-	private String[] blocks;
+	private short[] blocks;
 	/**
-	 * Wall ID's
+	 * Numeric wall ID's (see Assets.tiles)
 	 */
-	private String[] walls;
+	private short[] walls;
 	/**
-	 * Lights
+	 * Solid blocks, one bit per block, in the same order as the blocks
 	 */
-	private float[] light;
+	private long[] solid;
+	/**
+	 * Light levels, from 0 to Block.MAX_LIGHT
+	 */
+	private byte[] light;
 	/**
 	 * Data: 8 bits for blocks, 8 bit for walls, 16 bits general use
 	 */
 	private int[] data;
+	/**
+	 * Relative Y of the highest block in every column, -1 for empty columns
+	 */
+	private short[] highest;
+	/**
+	 * Shows, if the light engine has already lit this chunk
+	 */
+	private boolean lightCalculated;
+	/**
+	 * Modification counter, grows with every block/wall/data change
+	 */
+	private int modifications;
+	/**
+	 * Modification counter value at the moment of the last save
+	 */
+	private int savedModifications;
+	/**
+	 * Value of the chunk manager access counter, when the chunk was used last time
+	 */
+	private long lastAccess;
+	/**
+	 * Chunk position (cached, it is used for every block access)
+	 */
+	private PositionComponent position;
+	/**
+	 * Block, wall and data arrays are shared with a snapshot,
+	 * and must be copied before the next change
+	 */
+	private boolean shared;
 
 	public Chunk(short x, short y) {
 		super(PositionComponent.class);
 
-		PositionComponent position = this.getComponent(PositionComponent.class);
-
-		position.x = x;
-		position.y = y;
+		this.position = this.getComponent(PositionComponent.class);
+		this.position.setX(x);
+		this.position.setY(y);
 
 		int size = SIZE * SIZE;
 
-		this.blocks = new String[size];
-		this.walls = new String[size];
-		this.light = new float[size];
+		this.blocks = new short[size];
+		this.walls = new short[size];
+		this.solid = new long[(size + 63) / 64];
+		this.light = new byte[size];
 		this.data = new int[size];
+		this.highest = new short[SIZE];
 
 		for (int i = 0; i < size; i++) {
-			this.light[i] = 1.0f;
+			this.light[i] = (byte) Block.MAX_LIGHT;
+		}
+
+		for (int i = 0; i < SIZE; i++) {
+			this.highest[i] = -1;
+		}
+	}
+
+	/**
+	 * Creates a chunk from loaded data
+	 * Chunks are entities, so this must be called on the main thread
+	 *
+	 * @param snapshot Loaded data, its arrays are taken over by the chunk
+	 */
+	public Chunk(ChunkSnapshot snapshot) {
+		this(snapshot.x, snapshot.y);
+
+		this.blocks = snapshot.blocks;
+		this.walls = snapshot.walls;
+		this.data = snapshot.data;
+
+		for (short y = 0; y < SIZE; y++) {
+			for (short x = 0; x < SIZE; x++) {
+				int index = this.getIndex(x, y);
+				int id = this.blocks[index];
+
+				this.setSolid(index, Assets.tiles.isSolid(id));
+
+				if (id != Tiles.EMPTY) {
+					this.highest[x] = y;
+				}
+			}
 		}
 	}
 
@@ -69,8 +132,20 @@ public class Chunk extends Entity {
 	 * @return Block ID at given position
 	 */
 	public String getBlock(short x, short y) {
+		return Assets.tiles.getName(this.getBlockId(x, y));
+	}
+
+	/**
+	 * Returns numeric block ID at given position in chunk
+	 * Coordinates MUST be relative, or Tiles.EMPTY will be returned
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return Numeric block ID at given position
+	 */
+	public int getBlockId(short x, short y) {
 		if (this.isOut(x, y)) {
-			return null;
+			return Tiles.EMPTY;
 		}
 
 		return this.blocks[this.getIndex(x, y)];
@@ -85,11 +160,108 @@ public class Chunk extends Entity {
 	 * @param y Block Y
 	 */
 	public void setBlock(String value, short x, short y) {
+		this.setBlockId(Assets.tiles.getId(value), x, y);
+	}
+
+	/**
+	 * Sets numeric block ID at given position in chunk
+	 * Coordinates MUST be relative
+	 *
+	 * @param value New numeric block ID
+	 * @param x Block X
+	 * @param y Block Y
+	 */
+	public void setBlockId(int value, short x, short y) {
 		if (this.isOut(x, y)) {
 			return;
 		}
 
-		this.blocks[this.getIndex(x, y)] = value;
+		int index = this.getIndex(x, y);
+
+		this.unshare();
+		this.blocks[index] = (short) value;
+		this.modifications++;
+
+		this.setSolid(index, Assets.tiles.isSolid(value));
+
+		if (value != Tiles.EMPTY) {
+			if (y > this.highest[x]) {
+				this.highest[x] = y;
+			}
+		} else if (y == this.highest[x]) {
+			// The top block was removed, look for the next one
+			short top = (short) (y - 1);
+
+			while (top >= 0 && this.blocks[this.getIndex(x, top)] == Tiles.EMPTY) {
+				top--;
+			}
+
+			this.highest[x] = top;
+		}
+	}
+
+	/**
+	 * Checks, if there is a solid block at given position in chunk
+	 * Coordinates MUST be relative, or false will be returned
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 * @return The block is solid
+	 */
+	public boolean isSolid(short x, short y) {
+		if (this.isOut(x, y)) {
+			return false;
+		}
+
+		int index = this.getIndex(x, y);
+		return (this.solid[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Checks, if there is any solid block in given area of the chunk
+	 * Tests whole words of the solidity bits, not block by block
+	 * Coordinates are relative and inclusive, the area is clipped to the chunk
+	 *
+	 * @param x0 Start X
+	 * @param y0 Start Y
+	 * @param x1 End X
+	 * @param y1 End Y
+	 * @return There is a solid block
+	 */
+	public boolean hasSolid(int x0, int y0, int x1, int y1) {
+		x0 = Math.max(x0, 0);
+		y0 = Math.max(y0, 0);
+		x1 = Math.min(x1, SIZE - 1);
+		y1 = Math.min(y1, SIZE - 1);
+
+		if (x0 > x1) {
+			return false;
+		}
+
+		for (int y = y0; y <= y1; y++) {
+			int start = x0 + y * SIZE;
+			int end = x1 + y * SIZE;
+			int first = start >> 6;
+			int last = end >> 6;
+
+			for (int word = first; word <= last; word++) {
+				long mask = -1L;
+
+				if (word == first) {
+					mask &= -1L << start;
+				}
+
+				if (word == last) {
+					mask &= -1L >>> (63 - (end & 63));
+				}
+
+				if ((this.solid[word] & mask) != 0) {
+					return true;
+				}
+			}
+		}
+
+		return false;
 	}
 
 	/**
@@ -101,8 +273,20 @@ public class Chunk extends Entity {
 	 * @return Wall ID at given position
 	 */
 	public String getWall(short x, short y) {
+		return Assets.tiles.getName(this.getWallId(x, y));
+	}
+
+	/**
+	 * Returns numeric wall ID at given position in chunk
+	 * Coordinates MUST be relative, or Tiles.EMPTY will be returned
+	 *
+	 * @param x Wall X
+	 * @param y Wall Y
+	 * @return Numeric wall ID at given position
+	 */
+	public int getWallId(short x, short y) {
 		if (this.isOut(x, y)) {
-			return null;
+			return Tiles.EMPTY;
 		}
 
 		return this.walls[this.getIndex(x, y)];
@@ -117,43 +301,85 @@ public class Chunk extends Entity {
 	 * @param y Wall Y
 	 */
 	public void setWall(String value, short x, short y) {
+		this.setWallId(Assets.tiles.getId(value), x, y);
+	}
+
+	/**
+	 * Sets numeric wall ID at given position in chunk
+	 * Coordinates MUST be relative
+	 *
+	 * @param value New numeric wall ID
+	 * @param x Wall X
+	 * @param y Wall Y
+	 */
+	public void setWallId(int value, short x, short y) {
 		if (this.isOut(x, y)) {
 			return;
 		}
 
-		this.walls[this.getIndex(x, y)] = value;
+		this.unshare();
+		this.walls[this.getIndex(x, y)] = (short) value;
+		this.modifications++;
 	}
 
 	/**
-	 * Returns light ID at given position in chunk
-	 * Coordinates MUST be relative, or null will be returned
+	 * Returns light at given position in chunk
+	 * Coordinates MUST be relative, or 1.0 will be returned
 	 *
 	 * @param x Light X
 	 * @param y Light Y
-	 * @return Light at given position
+	 * @return Light at given position (from 0.0 to 1.0)
 	 */
 	public float getLight(short x, short y) {
 		if (this.isOut(x, y)) {
 			return 1.0f;
 		}
 
-		return this.light[this.getIndex(x, y)];
+		return ((float) this.light[this.getIndex(x, y)]) / Block.MAX_LIGHT;
 	}
 
 	/**
-	 * Sets light ID at given position in chunk
+	 * Sets light at given position in chunk
 	 * Coordinates MUST be relative
 	 *
-	 * @param value New light value
+	 * @param value New light value (from 0.0 to 1.0)
 	 * @param x Light X
 	 * @param y Light Y
 	 */
 	public void setLight(float value, short x, short y) {
+		this.setLightLevel(Math.round(value * Block.MAX_LIGHT), x, y);
+	}
+
+	/**
+	 * Returns light level at given position in chunk
+	 * Coordinates MUST be relative, or 0 will be returned
+	 *
+	 * @param x Light X
+	 * @param y Light Y
+	 * @return Light level at given position
+	 */
+	public int getLightLevel(short x, short y) {
+		if (this.isOut(x, y)) {
+			return 0;
+		}
+
+		return this.light[this.getIndex(x, y)];
+	}
+
+	/**
+	 * Sets light level at given position in chunk
+	 * Coordinates MUST be relative
+	 *
+	 * @param value New light level
+	 * @param x Light X
+	 * @param y Light Y
+	 */
+	public void setLightLevel(int value, short x, short y) {
 		if (this.isOut(x, y)) {
 			return;
 		}
 
-		this.light[this.getIndex(x, y)] = value;
+		this.light[this.getIndex(x, y)] = (byte) Math.min(Math.max(value, 0), Block.MAX_LIGHT);
 	}
 
 	/**
@@ -185,7 +411,24 @@ public class Chunk extends Entity {
 			return;
 		}
 
+		this.unshare();
 		this.data[this.getIndex(x, y)] = value;
+		this.modifications++;
+	}
+
+	/**
+	 * Returns highest block Y in given column of the chunk
+	 * Coordinates MUST be relative
+	 *
+	 * @param x Column X
+	 * @return Relative Y of the highest block or -1, if the column is empty
+	 */
+	public short getHighest(short x) {
+		if (x < 0 || x > SIZE - 1) {
+			return -1;
+		}
+
+		return this.highest[x];
 	}
 
 	/**
@@ -213,80 +456,115 @@ public class Chunk extends Entity {
 	 * @return Chunk X
 	 */
 	public short getX() {
-		return (short) this.getComponent(PositionComponent.class).x;
+		return (short) this.position.getX();
 	}
 
 	/**
 	 * @return Chunk Y
 	 */
 	public short getY() {
-		return (short) this.getComponent(PositionComponent.class).y;
+		return (short) this.position.getY();
 	}
 
 	/**
-	 * Calculates light in a chunk
+	 * Marks chunk as lit (or not) by the light engine
+	 *
+	 * @param lightCalculated New state
 	 */
-	public void calculateLighting() {
-		Log.debug("Calculating lighting...");
+	public void setLightCalculated(boolean lightCalculated) {
+		this.lightCalculated = lightCalculated;
+	}
 
-		for (short x = 0; x < SIZE; x++) {
-			for (short y = 0; y < SIZE; y++) {
-				this.calculateLightingForBlock(x, y);
-			}
-		}
+	/**
+	 * @return The light engine has already lit this chunk
+	 */
+	public boolean isLightCalculated() {
+		return this.lightCalculated;
 	}
 
 	/**
-	 * Calculates light for block
-	 * Coordinates MUST be relative
+	 * Returns a copy-on-write snapshot of the chunk data
+	 * The arrays are not copied now, but before the next change of the chunk,
+	 * so the snapshot can be safely written from another thread
 	 *
-	 * @param x Block X
-	 * @param y Block Y
+	 * @return Chunk snapshot
 	 */
-	public void calculateLightingForBlock(short x, short y) {
-		short sampleRadius = 6;
-		float max = Block.MAX_LIGHT;
-		float average = 0;
-
-		float divisor = (float) (Math.pow(sampleRadius * 2, 2));
+	public ChunkSnapshot snapshot() {
+		this.shared = true;
+		return new ChunkSnapshot(this, this.blocks, this.walls, this.data, this.modifications);
+	}
 
-		for (short i = (short) -sampleRadius; i < sampleRadius; i++) {
-			short high = World.instance.getHighest((short) (x + i));
+	/**
+	 * Marks chunk as saved
+	 *
+	 * @param modifications Modification counter value, that was saved
+	 */
+	public void markSaved(int modifications) {
+		this.savedModifications = modifications;
+	}
 
-			for (short k = (short) -sampleRadius; k < sampleRadius; k++) {
-				String id = World.instance.getBlock((short) (x + i), (short) (y + k));
+	/**
+	 * @return Modification counter value
+	 */
+	public int getModifications() {
+		return this.modifications;
+	}
 
-				float strength = 8.0f;
-				boolean hasBlock = (id != null);
-				boolean canSeeSky = y >= high;
+	/**
+	 * @return Chunk was changed since the last save
+	 */
+	public boolean isDirty() {
+		return this.modifications != this.savedModifications;
+	}
 
-				if (hasBlock) {
-					Block block = (Block) Assets.items.get(id);
+	/**
+	 * Remembers, when the chunk was used
+	 *
+	 * @param access Access counter value
+	 */
+	public void touch(long access) {
+		this.lastAccess = access;
+	}
 
-					if (block.isEmitter()) {
-						float dist = new Vector2(-i, -k).len();
+	/**
+	 * @return Access counter value, when the chunk was used last time
+	 */
+	public long getLastAccess() {
+		return this.lastAccess;
+	}
 
-						if (dist <= sampleRadius - 0.125f) {
-							strength = (float) Math.pow(10000, 1.75f / dist);
-						}
-					}
-				} else {
-					if (canSeeSky) {
-						strength += strength * 1f;
-					} else {
-						strength += -strength * 5f;
-					}
-				}
+	/**
+	 * @return Approximate amount of memory, used by chunk data (in bytes)
+	 */
+	public static int getMemorySize() {
+		// Blocks, walls, light, data, the heightmap and solidity bits
+		return SIZE * SIZE * (2 + 2 + 1 + 4) + SIZE * 2 + SIZE * SIZE / 8;
+	}
 
-				float value = World.instance.getLight((short) (x + i), (short) (y + k));
-				average += (value * strength / divisor);
-			}
+	/**
+	 * Copies arrays, shared with a snapshot
+	 */
+	private void unshare() {
+		if (this.shared) {
+			this.blocks = this.blocks.clone();
+			this.walls = this.walls.clone();
+			this.data = this.data.clone();
+			this.shared = false;
 		}
+	}
 
-		// Log.info(average / max + " : " + average);
-
-		float output = Math.min(Math.max(average / ((float) max), 0), 1);
-		this.setLight(output, x, y);
+	/**
+	 * Sets solidity bit of a block
+	 *
+	 * @param index Block array index
+	 * @param solid The block is solid
+	 */
+	private void setSolid(int index, boolean solid) {
+		if (solid) {
+			this.solid[index >> 6] |= 1L << index;
+		} else {
+			this.solid[index >> 6] &= ~(1L << index);
+		}
 	}
 
 	/**
@@ -3,82 +3,348 @@ package org.egordorichev.lasttry.entity.entities.world.chunk;
 import org.egordorichev.lasttry.core.io.FileReader;
 import org.egordorichev.lasttry.core.io.FileWriter;
 import org.egordorichev.lasttry.core.io.IO;
+import org.egordorichev.lasttry.entity.asset.Assets;
 import org.egordorichev.lasttry.util.log.Log;
 
-import java.io.FileNotFoundException;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
 public class ChunkIO extends IO<Chunk> {
 	/**
 	 * Current save format version
 	 */
-	public static byte VERSION = 0;
+	public static byte VERSION = 1;
+	/**
+	 * Open region files by path
+	 */
+	private static HashMap<String, RegionFile> regions = new HashMap<>();
 
 	/**
-	 * Saves chunk
+	 * Saves chunk snapshot
+	 * Can be called from any thread
 	 *
 	 * @param folder Chunk folder
-	 * @param chunk Chunk to save
+	 * @param chunk Chunk snapshot to save
+	 * @return True, if the chunk was saved
 	 */
-	public static void write(String folder, Chunk chunk) {
-		short x = chunk.getX();
-		short y = chunk.getY();
-
-		Log.debug("Saving chunk " + x + ":" + y);
-
-		 // TODO: world folders
-		try (FileWriter writer = new FileWriter(folder + "/" + x + ":" + y + ".cnk")) {
-			writer.writeByte(VERSION); // Chunk file version
-			for (short by = 0; by < Chunk.SIZE; by++) {
-				for (short bx = 0; bx < Chunk.SIZE; bx++) {
-					writer.writeString(chunk.getBlock(bx, by));
-					writer.writeString(chunk.getWall(bx, by));
-					writer.writeInt32(chunk.getData(bx, by));
-				}
-			}
-			writer.close();
+	public static boolean write(String folder, ChunkSnapshot chunk) {
+		Log.debug("Saving chunk " + chunk.x + ":" + chunk.y);
+
+		try {
+			getRegion(folder, chunk.x, chunk.y).write(chunk.x % RegionFile.SIZE, chunk.y % RegionFile.SIZE, encode(chunk));
+			return true;
 		} catch (Exception exception) {
 			exception.printStackTrace();
-			Log.error("Failed to save chunk " + x + ":" + y);
+			Log.error("Failed to save chunk " + chunk.x + ":" + chunk.y);
 		}
+
+		return false;
+	}
+
+	/**
+	 * Saves chunk on the I/O thread
+	 * Writes are done in order with loads, so a chunk,
+	 * loaded after this call, sees the saved data
+	 *
+	 * @param folder Chunk folder
+	 * @param chunk Chunk to save
+	 */
+	public static void save(String folder, Chunk chunk) {
+		ChunkSnapshot snapshot = chunk.snapshot();
+		ChunkLoader.getExecutor().submit(() -> write(folder, snapshot));
 	}
 
 	/**
-	 * Loads chunk with coords
-	 * (used for chunks)
+	 * Loads chunk data with coords
+	 * Runs on the I/O thread, so it only decodes the data,
+	 * the chunk itself is created on the main thread
 	 *
 	 * @param folder Chunk folder
 	 * @param x Chunk X
 	 * @param y Chunk Y
 	 *
-	 * @return Loaded chunk
+	 * @return Loaded chunk data
 	 */
-	public static Chunk load(String folder, short x, short y) {
+	public static ChunkSnapshot load(String folder, short x, short y) {
 		Log.debug("Loading chunk " + x + ":" + y);
 
-		// TODO: world folders
-		try (FileReader reader = new FileReader( folder + "/" + x + ":" + y + ".cnk")){
-			Chunk chunk = new Chunk(x, y);
-			byte version = reader.readByte();
-			if (version != VERSION) {
-				Log.error("Chunk version " + version + " is not supported");
-				return null;
+		try {
+			ByteBuffer data = getRegion(folder, x, y).read(x % RegionFile.SIZE, y % RegionFile.SIZE);
+
+			if (data == null) {
+				Log.debug("Chunk " + x + ":" + y + " is not found");
+				return empty(x, y);
 			}
-			for (short by = 0; by < Chunk.SIZE; by++) {
-				for (short bx = 0; bx < Chunk.SIZE; bx++) {
-					chunk.setBlock(reader.readString(), bx, by);
-					chunk.setWall(reader.readString(), bx, by);
-					chunk.setData(reader.readInt32(), bx, by);
-				}
+
+			ChunkSnapshot chunk = decode(new FileReader(data), x, y);
+
+			if (chunk != null) {
+				return chunk;
 			}
-			return chunk;
-		} catch (FileNotFoundException exception) {
-			Log.debug("Chunk " + x + ":" + y + " is not found");
-			return new Chunk(x, y);
 		} catch (Exception exception) {
 			exception.printStackTrace();
 			Log.error("Failed to load chunk " + x + ":" + y);
 		}
 
-		return new Chunk(x, y);
+		return empty(x, y);
+	}
+
+	/**
+	 * Moves chunks from the old x:y.cnk files into region files
+	 *
+	 * @param folder Chunk folder
+	 */
+	public static void migrate(String folder) {
+		File[] files = new File(folder).listFiles((dir, name) -> name.endsWith(".cnk"));
+
+		if (files == null || files.length == 0) {
+			return;
+		}
+
+		Log.info("Moving " + files.length + " chunks into region files");
+
+		for (File file : files) {
+			String[] pieces = file.getName().replace(".cnk", "").split(":");
+			boolean moved = false;
+
+			try (FileReader reader = new FileReader(file.getPath())) {
+				short x = Short.parseShort(pieces[0]);
+				short y = Short.parseShort(pieces[1]);
+				ChunkSnapshot chunk = decode(reader, x, y);
+
+				if (chunk != null) {
+					getRegion(folder, x, y).write(x % RegionFile.SIZE, y % RegionFile.SIZE, encode(chunk));
+					moved = true;
+				}
+			} catch (Exception exception) {
+				exception.printStackTrace();
+				Log.error("Failed to move chunk " + file.getName());
+			}
+
+			// The reader is closed here, so the file can be deleted
+			if (moved && !file.delete()) {
+				Log.warning("Failed to delete " + file.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Closes all open region files
+	 */
+	public static synchronized void closeRegions() {
+		for (RegionFile region : regions.values()) {
+			try {
+				region.close();
+			} catch (Exception exception) {
+				exception.printStackTrace();
+				Log.error("Failed to close region file");
+			}
+		}
+
+		regions.clear();
+	}
+
+	/**
+	 * Returns region file, that contains given chunk, opening it if needed
+	 *
+	 * @param folder Chunk folder
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return The region file
+	 * @throws IOException If the file can't be opened
+	 */
+	private static synchronized RegionFile getRegion(String folder, short x, short y) throws IOException {
+		String path = RegionFile.getPath(folder, x, y);
+		RegionFile region = regions.get(path);
+
+		if (region == null) {
+			region = new RegionFile(path);
+			regions.put(path, region);
+		}
+
+		return region;
+	}
+
+	/**
+	 * Serializes chunk
+	 *
+	 * Format v1: a palette of tile IDs, used in the chunk,
+	 * then block, wall and data layers as (run length, value) varint pairs.
+	 * Block and wall values are palette indices
+	 *
+	 * @param chunk Chunk snapshot to serialize
+	 * @return Chunk data
+	 * @throws IOException If something went wrong
+	 */
+	private static byte[] encode(ChunkSnapshot chunk) throws IOException {
+		int count = Chunk.SIZE * Chunk.SIZE;
+		int[] blocks = new int[count];
+		int[] walls = new int[count];
+		int[] indices = new int[Assets.tiles.getCount()];
+		ArrayList<String> palette = new ArrayList<>();
+
+		Arrays.fill(indices, -1);
+
+		for (int i = 0; i < count; i++) {
+			blocks[i] = getPaletteIndex(chunk.blocks[i], indices, palette);
+			walls[i] = getPaletteIndex(chunk.walls[i], indices, palette);
+		}
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		FileWriter writer = new FileWriter(stream);
+
+		writer.writeByte(VERSION); // Chunk file version
+		writer.writeVarInt(palette.size());
+
+		for (String id : palette) {
+			writer.writeString(id);
+		}
+
+		writeRuns(writer, blocks);
+		writeRuns(writer, walls);
+		writeRuns(writer, chunk.data);
+
+		writer.close();
+		return stream.toByteArray();
+	}
+
+	/**
+	 * Deserializes chunk data
+	 * Does not create the chunk, so it can be called from any thread
+	 *
+	 * @param reader Chunk data
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return Loaded chunk data or null, if the version is not supported
+	 * @throws IOException If something went wrong
+	 */
+	private static ChunkSnapshot decode(FileReader reader, short x, short y) throws IOException {
+		int count = Chunk.SIZE * Chunk.SIZE;
+		short[] blocks = new short[count];
+		short[] walls = new short[count];
+		int[] data;
+		byte version = reader.readByte();
+
+		if (version == 0) {
+			// Old format: two strings and an int per tile
+			data = new int[count];
+
+			for (int i = 0; i < count; i++) {
+				blocks[i] = Assets.tiles.getId(reader.readString());
+				walls[i] = Assets.tiles.getId(reader.readString());
+				data[i] = reader.readInt32();
+			}
+		} else if (version == VERSION) {
+			short[] palette = new short[reader.readVarInt()];
+
+			for (int i = 0; i < palette.length; i++) {
+				palette[i] = Assets.tiles.getId(reader.readString());
+			}
+
+			int[] blockIndices = readRuns(reader, count);
+			int[] wallIndices = readRuns(reader, count);
+
+			data = readRuns(reader, count);
+
+			for (int i = 0; i < count; i++) {
+				if (blockIndices[i] < 0 || blockIndices[i] >= palette.length
+					|| wallIndices[i] < 0 || wallIndices[i] >= palette.length) {
+					Log.error("Chunk " + x + ":" + y + " is corrupt, tile " + i + " is out of its palette");
+					throw new IOException("Broken chunk palette index");
+				}
+
+				blocks[i] = palette[blockIndices[i]];
+				walls[i] = palette[wallIndices[i]];
+			}
+		} else {
+			Log.error("Chunk version " + version + " is not supported");
+			return null;
+		}
+
+		return new ChunkSnapshot(x, y, blocks, walls, data);
+	}
+
+	/**
+	 * Returns data of a chunk without any tiles
+	 *
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return Empty chunk data
+	 */
+	private static ChunkSnapshot empty(short x, short y) {
+		int count = Chunk.SIZE * Chunk.SIZE;
+		return new ChunkSnapshot(x, y, new short[count], new short[count], new int[count]);
+	}
+
+	/**
+	 * Returns palette index for numeric tile ID, adding it to the palette if needed
+	 *
+	 * @param id Numeric tile ID
+	 * @param indices Palette indices by numeric ID
+	 * @param palette Tile IDs in the palette
+	 * @return Palette index
+	 */
+	private static int getPaletteIndex(int id, int[] indices, ArrayList<String> palette) {
+		if (indices[id] == -1) {
+			indices[id] = palette.size();
+			palette.add(Assets.tiles.getName(id));
+		}
+
+		return indices[id];
+	}
+
+	/**
+	 * Writes values as (run length, value) varint pairs
+	 *
+	 * @param writer Where to write
+	 * @param values Values to write
+	 * @throws IOException If something went wrong
+	 */
+	private static void writeRuns(FileWriter writer, int[] values) throws IOException {
+		int i = 0;
+
+		while (i < values.length) {
+			int value = values[i];
+			int start = i;
+
+			while (i < values.length && values[i] == value) {
+				i++;
+			}
+
+			writer.writeVarInt(i - start);
+			writer.writeVarInt(value);
+		}
+	}
+
+	/**
+	 * Reads values, written with writeRuns()
+	 *
+	 * @param reader Where to read from
+	 * @param count Amount of values
+	 * @return Read values
+	 * @throws IOException If the data is broken
+	 */
+	private static int[] readRuns(FileReader reader, int count) throws IOException {
+		int[] values = new int[count];
+		int i = 0;
+
+		while (i < count) {
+			int length = reader.readVarInt();
+			int value = reader.readVarInt();
+
+			if (length <= 0 || length > count - i) {
+				throw new IOException("Broken chunk run");
+			}
+
+			Arrays.fill(values, i, i + length, value);
+			i += length;
+		}
+
+		return values;
 	}
 }
\ No newline at end of file
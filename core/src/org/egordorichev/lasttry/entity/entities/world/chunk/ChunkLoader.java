@@ -0,0 +1,120 @@
+package org.egordorichev.lasttry.entity.entities.world.chunk;
+
+import org.egordorichev.lasttry.util.log.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads chunks on a background I/O thread
+ * Only the data is decoded there, chunks are created, when the results are collected,
+ * so requests and results are handled only on the main thread
+ */
+public class ChunkLoader {
+	/**
+	 * The I/O thread, shared by all chunk loaders
+	 */
+	private static ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Chunk IO");
+		thread.setDaemon(true);
+
+		return thread;
+	});
+	/**
+	 * Loads in progress by chunk index
+	 */
+	private HashMap<Integer, Future<ChunkSnapshot>> requests = new HashMap<>();
+
+	/**
+	 * Starts loading a chunk, if it is not loading already
+	 *
+	 * @param folder Chunk folder
+	 * @param index Chunk array index
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return True, if a new load was started
+	 */
+	public boolean request(String folder, int index, short x, short y) {
+		if (this.requests.containsKey(index)) {
+			return false;
+		}
+
+		this.requests.put(index, executor.submit(() -> ChunkIO.load(folder, x, y)));
+		return true;
+	}
+
+	/**
+	 * Waits for requested chunk to load
+	 *
+	 * @param index Chunk array index
+	 * @return Loaded chunk or null, if it was not requested or failed to load
+	 */
+	public Chunk await(int index) {
+		Future<ChunkSnapshot> request = this.requests.remove(index);
+
+		if (request == null) {
+			return null;
+		}
+
+		try {
+			return new Chunk(request.get());
+		} catch (Exception exception) {
+			exception.printStackTrace();
+			Log.error("Failed to load chunk " + index);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Collects all chunks, that finished loading
+	 *
+	 * @param list List to add loaded chunks to
+	 */
+	public void poll(ArrayList<Chunk> list) {
+		if (this.requests.size() == 0) {
+			return;
+		}
+
+		Iterator<Map.Entry<Integer, Future<ChunkSnapshot>>> iterator = this.requests.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			Future<ChunkSnapshot> request = iterator.next().getValue();
+
+			if (request.isDone()) {
+				iterator.remove();
+
+				try {
+					ChunkSnapshot chunk = request.get();
+
+					if (chunk != null) {
+						list.add(new Chunk(chunk));
+					}
+				} catch (Exception exception) {
+					exception.printStackTrace();
+					Log.error("Failed to load chunk");
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param index Chunk array index
+	 * @return Chunk is being loaded
+	 */
+	public boolean isLoading(int index) {
+		return this.requests.containsKey(index);
+	}
+
+	/**
+	 * @return The I/O thread
+	 */
+	public static ExecutorService getExecutor() {
+		return executor;
+	}
+}
\ No newline at end of file
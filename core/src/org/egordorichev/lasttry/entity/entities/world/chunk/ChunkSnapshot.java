@@ -0,0 +1,73 @@
+package org.egordorichev.lasttry.entity.entities.world.chunk;
+
+/**
+ * Chunk data at the moment of the snapshot
+ * The arrays are never changed, so they can be read from any thread
+ */
+public class ChunkSnapshot {
+	/**
+	 * Chunk X
+	 */
+	public short x;
+	/**
+	 * Chunk Y
+	 */
+	public short y;
+	/**
+	 * Numeric block IDs
+	 */
+	public short[] blocks;
+	/**
+	 * Numeric wall IDs
+	 */
+	public short[] walls;
+	/**
+	 * Tile data
+	 */
+	public int[] data;
+	/**
+	 * Chunk modification counter value
+	 */
+	public int modifications;
+	/**
+	 * The chunk itself, null for loaded data
+	 */
+	private Chunk chunk;
+
+	public ChunkSnapshot(Chunk chunk, short[] blocks, short[] walls, int[] data, int modifications) {
+		this.chunk = chunk;
+		this.x = chunk.getX();
+		this.y = chunk.getY();
+		this.blocks = blocks;
+		this.walls = walls;
+		this.data = data;
+		this.modifications = modifications;
+	}
+
+	/**
+	 * Wraps chunk data, that was loaded without a chunk
+	 *
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @param blocks Numeric block IDs
+	 * @param walls Numeric wall IDs
+	 * @param data Tile data
+	 */
+	public ChunkSnapshot(short x, short y, short[] blocks, short[] walls, int[] data) {
+		this.x = x;
+		this.y = y;
+		this.blocks = blocks;
+		this.walls = walls;
+		this.data = data;
+	}
+
+	/**
+	 * Marks the chunk as saved up to this snapshot
+	 * Should be called from the main thread, after the snapshot was written
+	 */
+	public void markSaved() {
+		if (this.chunk != null) {
+			this.chunk.markSaved(this.modifications);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package org.egordorichev.lasttry.entity.entities.world.chunk;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+/**
+ * Stores SIZE x SIZE chunks in one file
+ *
+ * The file starts with a header: for every chunk
+ * an int32 offset (in sectors) and an int32 length (in bytes),
+ * 0 offset means, that the chunk is not saved.
+ * Chunk data lives in whole sectors after the header,
+ * so chunks can be rewritten in place, while they fit
+ */
+public class RegionFile {
+	/**
+	 * Region size in chunks
+	 */
+	public static int SIZE = 16;
+	/**
+	 * Sector size in bytes
+	 */
+	public static int SECTOR_SIZE = 4096;
+	/**
+	 * Size of one header entry in bytes
+	 */
+	private static int ENTRY_SIZE = 8;
+	/**
+	 * The file
+	 */
+	private RandomAccessFile file;
+	/**
+	 * Chunk offsets in sectors
+	 */
+	private int[] offsets;
+	/**
+	 * Chunk lengths in bytes
+	 */
+	private int[] lengths;
+	/**
+	 * Used sectors
+	 */
+	private BitSet used;
+	/**
+	 * Amount of sectors in the file
+	 */
+	private int sectors;
+
+	public RegionFile(String path) throws IOException {
+		this.file = new RandomAccessFile(path, "rw");
+		this.offsets = new int[SIZE * SIZE];
+		this.lengths = new int[SIZE * SIZE];
+		this.used = new BitSet();
+
+		int headerSectors = getHeaderSectors();
+
+		if (this.file.length() < (long) headerSectors * SECTOR_SIZE) {
+			// New file, write empty header
+			this.file.setLength((long) headerSectors * SECTOR_SIZE);
+		}
+
+		this.sectors = (int) ((this.file.length() + SECTOR_SIZE - 1) / SECTOR_SIZE);
+		this.used.set(0, headerSectors);
+		this.file.seek(0);
+
+		for (int i = 0; i < SIZE * SIZE; i++) {
+			this.offsets[i] = this.file.readInt();
+			this.lengths[i] = this.file.readInt();
+
+			if (this.offsets[i] != 0) {
+				this.used.set(this.offsets[i], this.offsets[i] + getSectorCount(this.lengths[i]));
+			}
+		}
+	}
+
+	/**
+	 * Reads chunk data
+	 *
+	 * @param x Chunk X in the region
+	 * @param y Chunk Y in the region
+	 * @return Chunk data or null, if it was never saved
+	 * @throws IOException If something went wrong
+	 */
+	public synchronized ByteBuffer read(int x, int y) throws IOException {
+		int index = getIndex(x, y);
+
+		if (this.offsets[index] == 0) {
+			return null;
+		}
+
+		ByteBuffer data = ByteBuffer.allocate(this.lengths[index]);
+		FileChannel channel = this.file.getChannel();
+		long position = (long) this.offsets[index] * SECTOR_SIZE;
+
+		// Positional reads, no seeking and no stream buffers
+		while (data.hasRemaining()) {
+			if (channel.read(data, position + data.position()) == -1) {
+				throw new EOFException();
+			}
+		}
+
+		data.flip();
+		return data;
+	}
+
+	/**
+	 * Writes chunk data, reusing its old sectors if it fits
+	 *
+	 * @param x Chunk X in the region
+	 * @param y Chunk Y in the region
+	 * @param data Chunk data
+	 * @throws IOException If something went wrong
+	 */
+	public synchronized void write(int x, int y, byte[] data) throws IOException {
+		int index = getIndex(x, y);
+		int offset = this.offsets[index];
+		int oldCount = getSectorCount(this.lengths[index]);
+		int count = getSectorCount(data.length);
+
+		if (offset != 0 && count <= oldCount) {
+			// Fits in place, free the tail
+			this.used.clear(offset + count, offset + oldCount);
+		} else {
+			if (offset != 0) {
+				this.used.clear(offset, offset + oldCount);
+			}
+
+			offset = this.allocate(count);
+		}
+
+		this.file.seek((long) offset * SECTOR_SIZE);
+		this.file.write(data);
+
+		this.offsets[index] = offset;
+		this.lengths[index] = data.length;
+
+		this.file.seek((long) index * ENTRY_SIZE);
+		this.file.writeInt(offset);
+		this.file.writeInt(data.length);
+	}
+
+	/**
+	 * Closes the file
+	 *
+	 * @throws IOException If something went wrong
+	 */
+	public synchronized void close() throws IOException {
+		this.file.close();
+	}
+
+	/**
+	 * Finds a free run of sectors, or appends them to the end of the file
+	 *
+	 * @param count Amount of sectors
+	 * @return First sector
+	 * @throws IOException If something went wrong
+	 */
+	private int allocate(int count) throws IOException {
+		int start = this.used.nextClearBit(getHeaderSectors());
+
+		while (start < this.sectors) {
+			int end = this.used.nextSetBit(start);
+
+			if (end == -1 || end > this.sectors) {
+				end = this.sectors;
+			}
+
+			if (end - start >= count) {
+				this.used.set(start, start + count);
+				return start;
+			}
+
+			if (end == this.sectors) {
+				// The free run at the end of the file is too small, but it can grow
+				break;
+			}
+
+			start = this.used.nextClearBit(end);
+		}
+
+		// Nothing fits, grow the file from the last used sector, so the free run at its end is not wasted
+		this.used.set(start, start + count);
+		this.sectors = start + count;
+		this.file.setLength((long) this.sectors * SECTOR_SIZE);
+
+		return start;
+	}
+
+	/**
+	 * Returns region file name for given chunk
+	 *
+	 * @param folder World folder
+	 * @param x Chunk X
+	 * @param y Chunk Y
+	 * @return Path to the region file
+	 */
+	public static String getPath(String folder, int x, int y) {
+		return folder + File.separator + "r." + (x / SIZE) + "." + (y / SIZE) + ".rgn";
+	}
+
+	/**
+	 * Returns header entry index for given chunk
+	 *
+	 * @param x Chunk X in the region
+	 * @param y Chunk Y in the region
+	 * @return Entry index
+	 */
+	private static int getIndex(int x, int y) {
+		return x + y * SIZE;
+	}
+
+	/**
+	 * @param length Length in bytes
+	 * @return Amount of sectors, needed to store that many bytes
+	 */
+	private static int getSectorCount(int length) {
+		return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+	}
+
+	/**
+	 * @return Amount of sectors, used by the header
+	 */
+	private static int getHeaderSectors() {
+		return getSectorCount(SIZE * SIZE * ENTRY_SIZE);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.egordorichev.lasttry.entity.entities.world.event;
+
+import org.egordorichev.lasttry.entity.engine.event.Event;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+
+/**
+ * Posted after a chunk was added to the world
+ */
+public class ChunkLoadedEvent extends Event {
+	/**
+	 * The chunk
+	 */
+	public Chunk chunk;
+
+	/**
+	 * Clears event data
+	 */
+	@Override
+	public void reset() {
+		this.chunk = null;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.egordorichev.lasttry.entity.entities.world.event;
+
+import org.egordorichev.lasttry.entity.engine.event.Event;
+
+/**
+ * Posted after a block or a wall was changed
+ */
+public class TileChangedEvent extends Event {
+	/**
+	 * Tile X
+	 */
+	public short x;
+	/**
+	 * Tile Y
+	 */
+	public short y;
+	/**
+	 * The wall was changed, not the block
+	 */
+	public boolean wall;
+
+	/**
+	 * Clears event data
+	 */
+	@Override
+	public void reset() {
+		this.x = 0;
+		this.y = 0;
+		this.wall = false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,428 @@
+package org.egordorichev.lasttry.entity.entities.world.light;
+
+import org.egordorichev.lasttry.entity.asset.Assets;
+import org.egordorichev.lasttry.entity.asset.storages.Tiles;
+import org.egordorichev.lasttry.entity.entities.item.tile.Block;
+import org.egordorichev.lasttry.entity.entities.item.tile.Tile;
+import org.egordorichev.lasttry.entity.entities.world.World;
+import org.egordorichev.lasttry.entity.entities.world.chunk.Chunk;
+import org.egordorichev.lasttry.util.struct.IntQueue;
+
+import java.util.ArrayList;
+
+/**
+ * Flood-fill light propagation
+ * Light spreads from sources (open sky above the highest blocks and emitting blocks)
+ * to the neighbors, losing some levels on every step.
+ * Block edits only touch cells, which light really changes,
+ * so the cost is bounded by light radius, not by chunk area
+ */
+public class LightEngine {
+	/**
+	 * How many light levels are lost, when light enters an empty cell
+	 */
+	public static int AIR_ABSORPTION = 1;
+	/**
+	 * How many light levels are lost, when light enters a block
+	 */
+	public static int BLOCK_ABSORPTION = 4;
+	/**
+	 * Cells, that should spread their light
+	 */
+	private IntQueue addQueue = new IntQueue();
+	/**
+	 * Cells (and their old levels), that should remove their light
+	 */
+	private IntQueue removeQueue = new IntQueue();
+	/**
+	 * Chunks, that were loaded, but are not lit yet
+	 */
+	private ArrayList<Chunk> pending = new ArrayList<>();
+
+	/**
+	 * Queues a freshly loaded chunk for lighting
+	 *
+	 * @param chunk The chunk
+	 */
+	public void addChunk(Chunk chunk) {
+		if (chunk != null && !chunk.isLightCalculated() && !this.pending.contains(chunk)) {
+			this.pending.add(chunk);
+		}
+	}
+
+	/**
+	 * Lights all pending chunks
+	 */
+	public void update() {
+		if (this.pending.size() == 0) {
+			return;
+		}
+
+		for (Chunk chunk : this.pending) {
+			int x = chunk.getX() * Chunk.SIZE;
+			int y = chunk.getY() * Chunk.SIZE;
+
+			// It might have been unloaded already
+			if (World.instance.getLoadedChunkFor(x, y) == chunk) {
+				this.lightChunk(chunk);
+			}
+		}
+
+		this.pending.clear();
+	}
+
+	/**
+	 * Calculates light for the whole chunk,
+	 * pulling light in from the lit neighbors
+	 *
+	 * @param chunk The chunk
+	 */
+	public void lightChunk(Chunk chunk) {
+		chunk.setLightCalculated(true);
+
+		int baseX = chunk.getX() * Chunk.SIZE;
+		int baseY = chunk.getY() * Chunk.SIZE;
+
+		for (short y = 0; y < Chunk.SIZE; y++) {
+			for (short x = 0; x < Chunk.SIZE; x++) {
+				int emission = this.getEmission(chunk, x, y);
+				chunk.setLightLevel(emission, x, y);
+
+				if (emission > 0) {
+					this.addQueue.add(pack(baseX + x, baseY + y));
+				}
+			}
+		}
+
+		for (int i = 0; i < Chunk.SIZE; i++) {
+			this.queueIfLit(baseX - 1, baseY + i);
+			this.queueIfLit(baseX + Chunk.SIZE, baseY + i);
+			this.queueIfLit(baseX + i, baseY - 1);
+			this.queueIfLit(baseX + i, baseY + Chunk.SIZE);
+		}
+
+		this.propagate();
+		this.coverBelow(chunk);
+	}
+
+	/**
+	 * Removes sky light under a freshly lit chunk
+	 * Chunks load in any order, so the chunks below might have been lit,
+	 * while this one was missing, and took their caves for open sky
+	 *
+	 * @param chunk The chunk
+	 */
+	private void coverBelow(Chunk chunk) {
+		int baseX = chunk.getX() * Chunk.SIZE;
+
+		for (int x = baseX; x < baseX + Chunk.SIZE; x++) {
+			for (int y = chunk.getY() * Chunk.SIZE - 1; y >= 0; y--) {
+				Chunk below = this.getChunk(x, y);
+
+				if (below == null) {
+					// Skip to the top of the next chunk
+					y -= y % Chunk.SIZE;
+					continue;
+				}
+
+				short rx = (short) (x % Chunk.SIZE);
+				short ry = (short) (y % Chunk.SIZE);
+
+				if (below.getBlockId(rx, ry) != Tiles.EMPTY) {
+					// Cells under a block were never sky sources
+					break;
+				}
+
+				// Only sky sources have the full light level in empty cells
+				if (below.getLightLevel(rx, ry) == Block.MAX_LIGHT && this.getEmission(below, rx, ry) == 0) {
+					this.removeQueue.add(pack(x, y));
+					this.removeQueue.add(Block.MAX_LIGHT);
+					below.setLightLevel(0, rx, ry);
+				}
+			}
+		}
+
+		if (!this.removeQueue.isEmpty()) {
+			this.unspreadQueued();
+			this.propagate();
+		}
+	}
+
+	/**
+	 * Updates light after block/wall change at given position
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 */
+	public void updateBlock(int x, int y) {
+		Chunk chunk = this.getChunk(x, y);
+
+		if (chunk == null) {
+			return;
+		}
+
+		short rx = (short) (x % Chunk.SIZE);
+		short ry = (short) (y % Chunk.SIZE);
+
+		this.removeQueue.add(pack(x, y));
+		this.removeQueue.add(chunk.getLightLevel(rx, ry));
+		chunk.setLightLevel(0, rx, ry);
+		this.unspreadQueued();
+
+		int emission = this.getEmission(chunk, rx, ry);
+
+		if (emission > 0) {
+			chunk.setLightLevel(emission, rx, ry);
+			this.addQueue.add(pack(x, y));
+		}
+
+		// Let the light flow into the changed cell
+		this.queueIfLit(x + 1, y);
+		this.queueIfLit(x - 1, y);
+		this.queueIfLit(x, y + 1);
+		this.queueIfLit(x, y - 1);
+
+		this.propagate();
+	}
+
+	/**
+	 * Updates sky light under a changed block
+	 * If the top block of the column was placed or removed,
+	 * empty cells below it stop or start being sky sources
+	 *
+	 * @param x Block X
+	 * @param y Block Y
+	 */
+	public void updateColumn(int x, int y) {
+		if (y < World.instance.getHighest((short) x)) {
+			// There is a block above, the sky is covered anyway
+			return;
+		}
+
+		for (int cy = y - 1; cy >= 0; cy--) {
+			Chunk chunk = this.getChunk(x, cy);
+
+			if (chunk == null || chunk.getBlockId((short) (x % Chunk.SIZE), (short) (cy % Chunk.SIZE)) != Tiles.EMPTY) {
+				break;
+			}
+
+			this.updateBlock(x, cy);
+		}
+	}
+
+	/**
+	 * Removes light of all queued cells from their neighbors
+	 */
+	private void unspreadQueued() {
+		while (!this.removeQueue.isEmpty()) {
+			int position = this.removeQueue.poll();
+			int level = this.removeQueue.poll();
+			int cx = position >> 16;
+			int cy = position & 0xFFFF;
+
+			this.unspread(cx + 1, cy, level);
+			this.unspread(cx - 1, cy, level);
+			this.unspread(cx, cy + 1, level);
+			this.unspread(cx, cy - 1, level);
+		}
+	}
+
+	/**
+	 * Spreads light from all queued cells
+	 */
+	private void propagate() {
+		while (!this.addQueue.isEmpty()) {
+			int position = this.addQueue.poll();
+			int x = position >> 16;
+			int y = position & 0xFFFF;
+			int level = this.getLevel(x, y);
+
+			if (level <= AIR_ABSORPTION) {
+				continue;
+			}
+
+			this.spread(x + 1, y, level);
+			this.spread(x - 1, y, level);
+			this.spread(x, y + 1, level);
+			this.spread(x, y - 1, level);
+		}
+	}
+
+	/**
+	 * Lights up a neighbor cell
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @param level Light level of the cell, that spreads the light
+	 */
+	private void spread(int x, int y, int level) {
+		Chunk chunk = this.getChunk(x, y);
+
+		if (chunk == null) {
+			return;
+		}
+
+		short rx = (short) (x % Chunk.SIZE);
+		short ry = (short) (y % Chunk.SIZE);
+		int value = level - this.getAbsorption(chunk, rx, ry);
+
+		if (value > chunk.getLightLevel(rx, ry)) {
+			chunk.setLightLevel(value, rx, ry);
+			this.addQueue.add(pack(x, y));
+		}
+	}
+
+	/**
+	 * Removes light from a neighbor cell, if it was lit by the removed cell
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @param level Old light level of the removed cell
+	 */
+	private void unspread(int x, int y, int level) {
+		Chunk chunk = this.getChunk(x, y);
+
+		if (chunk == null) {
+			return;
+		}
+
+		short rx = (short) (x % Chunk.SIZE);
+		short ry = (short) (y % Chunk.SIZE);
+		int current = chunk.getLightLevel(rx, ry);
+
+		if (current == 0) {
+			return;
+		}
+
+		if (current < level) {
+			chunk.setLightLevel(0, rx, ry);
+
+			this.removeQueue.add(pack(x, y));
+			this.removeQueue.add(current);
+
+			// Sources light themselves back up
+			int emission = this.getEmission(chunk, rx, ry);
+
+			if (emission > 0) {
+				chunk.setLightLevel(emission, rx, ry);
+				this.addQueue.add(pack(x, y));
+			}
+		} else {
+			// Lit by someone else, it will refill the hole
+			this.addQueue.add(pack(x, y));
+		}
+	}
+
+	/**
+	 * Queues cell for spreading, if it has any light
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 */
+	private void queueIfLit(int x, int y) {
+		if (this.getLevel(x, y) > 0) {
+			this.addQueue.add(pack(x, y));
+		}
+	}
+
+	/**
+	 * Returns light level at given position
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Light level or 0, if the chunk is not lit
+	 */
+	private int getLevel(int x, int y) {
+		Chunk chunk = this.getChunk(x, y);
+
+		if (chunk == null) {
+			return 0;
+		}
+
+		return chunk.getLightLevel((short) (x % Chunk.SIZE), (short) (y % Chunk.SIZE));
+	}
+
+	/**
+	 * Returns how much light the cell emits itself
+	 * Coordinates MUST be relative
+	 *
+	 * @param chunk Cell chunk
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Emitted light level
+	 */
+	private int getEmission(Chunk chunk, short x, short y) {
+		int id = chunk.getBlockId(x, y);
+
+		if (id == Tiles.EMPTY) {
+			// Only cells above the highest block of the column see the sky
+			return chunk.getWallId(x, y) == Tiles.EMPTY && this.isUnderSky(chunk, x, y) ? Block.MAX_LIGHT : 0;
+		}
+
+		Tile tile = Assets.tiles.get(id);
+
+		if (tile instanceof Block && ((Block) tile).isEmitter()) {
+			return Block.MAX_LIGHT;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Checks, that there are no blocks above the cell
+	 * Coordinates MUST be relative
+	 *
+	 * @param chunk Cell chunk
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Nothing blocks the sky
+	 */
+	private boolean isUnderSky(Chunk chunk, short x, short y) {
+		if (y <= chunk.getHighest(x)) {
+			return false;
+		}
+
+		return chunk.getY() * Chunk.SIZE + y > World.instance.getHighest((short) (chunk.getX() * Chunk.SIZE + x));
+	}
+
+	/**
+	 * Returns how many levels light loses, when it enters the cell
+	 * Coordinates MUST be relative
+	 *
+	 * @param chunk Cell chunk
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Light absorption
+	 */
+	private int getAbsorption(Chunk chunk, short x, short y) {
+		return chunk.getBlockId(x, y) == Tiles.EMPTY ? AIR_ABSORPTION : BLOCK_ABSORPTION;
+	}
+
+	/**
+	 * Returns lit chunk, that contains given cell
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return The chunk or null, if it is not loaded or lit yet
+	 */
+	private Chunk getChunk(int x, int y) {
+		Chunk chunk = World.instance.getLoadedChunkFor(x, y);
+
+		if (chunk == null || !chunk.isLightCalculated()) {
+			return null;
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Packs cell position into one int
+	 *
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Packed position
+	 */
+	private static int pack(int x, int y) {
+		return (x << 16) | (y & 0xFFFF);
+	}
+}
\ No newline at end of file
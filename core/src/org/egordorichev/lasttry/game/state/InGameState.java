@@ -6,6 +6,8 @@ import org.egordorichev.lasttry.entity.engine.system.systems.CameraSystem;
 import org.egordorichev.lasttry.entity.entities.camera.CameraComponent;
 import org.egordorichev.lasttry.graphics.Graphics;
 
+import java.util.ArrayList;
+
 public class InGameState extends State {
 	public InGameState() {
 
@@ -26,14 +28,18 @@ public class InGameState extends State {
 	 */
 	@Override
 	public void render() {
-		for (Entity entity : Engine.getEntities()) {
-			entity.render();
+		for (ArrayList<Entity> bucket : Engine.getRenderList().getBuckets()) {
+			for (Entity entity : bucket) {
+				entity.render();
+			}
 		}
 
 		Graphics.batch.setProjectionMatrix(CameraSystem.instance.get("ui").getComponent(CameraComponent.class).camera.combined);
 
-		for (Entity entity : Engine.getEntities()) {
-			entity.renderUi();
+		for (ArrayList<Entity> bucket : Engine.getUiRenderList().getBuckets()) {
+			for (Entity entity : bucket) {
+				entity.renderUi();
+			}
 		}
 	}
 }
\ No newline at end of file
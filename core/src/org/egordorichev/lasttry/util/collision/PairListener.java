@@ -0,0 +1,14 @@
+package org.egordorichev.lasttry.util.collision;
+
+/**
+ * Gets pairs of overlapping boxes from the spatial hash
+ */
+public interface PairListener {
+	/**
+	 * Called once for every pair of overlapping boxes
+	 *
+	 * @param first First box ID
+	 * @param second Second box ID
+	 */
+	void onPair(int first, int second);
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package org.egordorichev.lasttry.util.collision;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase
+ * Boxes are put into every cell they touch, and only boxes, that share a cell, are tested,
+ * so finding overlaps is close to linear instead of quadratic
+ * The arrays are reused between rebuilds, so it does not allocate, once it has grown
+ */
+public class SpatialHash {
+	/**
+	 * Size of one cell
+	 */
+	private float cellSize;
+	/**
+	 * Box bounds by box ID: x, y, width, height
+	 */
+	private float[] bounds = new float[64 * 4];
+	/**
+	 * First cell entry by hash bucket, -1 if empty
+	 */
+	private int[] heads = new int[256];
+	/**
+	 * Next entry in the same bucket by entry, -1 at the end
+	 */
+	private int[] next = new int[256];
+	/**
+	 * Cell key by entry
+	 */
+	private long[] keys = new long[256];
+	/**
+	 * Box ID by entry
+	 */
+	private int[] boxes = new int[256];
+	/**
+	 * Amount of entries
+	 */
+	private int count;
+
+	public SpatialHash(float cellSize) {
+		this.cellSize = cellSize;
+		Arrays.fill(this.heads, -1);
+	}
+
+	/**
+	 * Removes all boxes
+	 */
+	public void clear() {
+		if (this.count > 0) {
+			Arrays.fill(this.heads, -1);
+			this.count = 0;
+		}
+	}
+
+	/**
+	 * Adds a box, IDs should be small and dense, like list indices
+	 *
+	 * @param id Box ID
+	 * @param x Box X
+	 * @param y Box Y
+	 * @param width Box width
+	 * @param height Box height
+	 */
+	public void add(int id, float x, float y, float width, float height) {
+		if (id * 4 >= this.bounds.length) {
+			this.bounds = Arrays.copyOf(this.bounds, Math.max(this.bounds.length * 2, (id + 1) * 4));
+		}
+
+		this.bounds[id * 4] = x;
+		this.bounds[id * 4 + 1] = y;
+		this.bounds[id * 4 + 2] = width;
+		this.bounds[id * 4 + 3] = height;
+
+		int xStart = this.getCell(x);
+		int yStart = this.getCell(y);
+		int xEnd = this.getCell(x + width);
+		int yEnd = this.getCell(y + height);
+
+		for (int cy = yStart; cy <= yEnd; cy++) {
+			for (int cx = xStart; cx <= xEnd; cx++) {
+				this.insert(getKey(cx, cy), id);
+			}
+		}
+	}
+
+	/**
+	 * Reports every pair of overlapping boxes once
+	 *
+	 * @param listener Pair listener
+	 */
+	public void query(PairListener listener) {
+		for (int entry = 0; entry < this.count; entry++) {
+			long key = this.keys[entry];
+			int first = this.boxes[entry];
+
+			// Earlier entries of the same bucket follow this one in the chain
+			for (int other = this.next[entry]; other != -1; other = this.next[other]) {
+				if (this.keys[other] != key) {
+					continue;
+				}
+
+				int second = this.boxes[other];
+
+				if (this.overlap(first, second) && this.isOwner(first, second, key)) {
+					listener.onPair(second, first);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a cell entry
+	 *
+	 * @param key Cell key
+	 * @param id Box ID
+	 */
+	private void insert(long key, int id) {
+		if (this.count == this.keys.length) {
+			this.grow();
+		}
+
+		int entry = this.count++;
+		int bucket = getHash(key) & (this.heads.length - 1);
+
+		this.keys[entry] = key;
+		this.boxes[entry] = id;
+		this.next[entry] = this.heads[bucket];
+		this.heads[bucket] = entry;
+	}
+
+	/**
+	 * Doubles entry arrays and rehashes them into a bigger table
+	 */
+	private void grow() {
+		int capacity = this.keys.length * 2;
+
+		this.keys = Arrays.copyOf(this.keys, capacity);
+		this.boxes = Arrays.copyOf(this.boxes, capacity);
+		this.next = new int[capacity];
+		this.heads = new int[capacity];
+
+		Arrays.fill(this.heads, -1);
+
+		// Entries go back in the same order, so the chains stay ordered
+		for (int entry = 0; entry < this.count; entry++) {
+			int bucket = getHash(this.keys[entry]) & (this.heads.length - 1);
+
+			this.next[entry] = this.heads[bucket];
+			this.heads[bucket] = entry;
+		}
+	}
+
+	/**
+	 * Checks, if two boxes overlap
+	 *
+	 * @param first First box ID
+	 * @param second Second box ID
+	 * @return Boxes overlap
+	 */
+	private boolean overlap(int first, int second) {
+		float[] b = this.bounds;
+		int i = first * 4;
+		int j = second * 4;
+
+		return Collider.testAABB(b[i], b[i + 1], b[i + 2], b[i + 3], b[j], b[j + 1], b[j + 2], b[j + 3]);
+	}
+
+	/**
+	 * Boxes can share many cells, the pair is reported only from the cell,
+	 * that has the corner of their intersection
+	 *
+	 * @param first First box ID
+	 * @param second Second box ID
+	 * @param key Current cell key
+	 * @return The cell owns the pair
+	 */
+	private boolean isOwner(int first, int second, long key) {
+		float x = Math.max(this.bounds[first * 4], this.bounds[second * 4]);
+		float y = Math.max(this.bounds[first * 4 + 1], this.bounds[second * 4 + 1]);
+
+		return getKey(this.getCell(x), this.getCell(y)) == key;
+	}
+
+	/**
+	 * @param coordinate World coordinate
+	 * @return Cell coordinate
+	 */
+	private int getCell(float coordinate) {
+		return (int) Math.floor(coordinate / this.cellSize);
+	}
+
+	/**
+	 * @param x Cell X
+	 * @param y Cell Y
+	 * @return Cell key
+	 */
+	private static long getKey(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param key Cell key
+	 * @return Mixed hash of the key
+	 */
+	private static int getHash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
\ No newline at end of file
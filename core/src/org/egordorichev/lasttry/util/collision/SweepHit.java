@@ -0,0 +1,27 @@
+package org.egordorichev.lasttry.util.collision;
+
+/**
+ * Result of a swept box test, reused between tests
+ */
+public class SweepHit {
+	/**
+	 * Time of impact, from 0 (start of the move) to 1 (end of the move)
+	 */
+	public float time;
+	/**
+	 * Contact normal X, -1, 0 or 1
+	 */
+	public float normalX;
+	/**
+	 * Contact normal Y, -1, 0 or 1
+	 */
+	public float normalY;
+	/**
+	 * Box X at the moment of impact
+	 */
+	public float x;
+	/**
+	 * Box Y at the moment of impact
+	 */
+	public float y;
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package org.egordorichev.lasttry.util.struct;
+
+/**
+ * Growable FIFO queue of primitive ints
+ * Does not box values, so it can be used in hot loops
+ */
+public class IntQueue {
+	/**
+	 * Queue values
+	 */
+	private int[] values;
+	/**
+	 * Index of the first value
+	 */
+	private int head;
+	/**
+	 * Amount of values in the queue
+	 */
+	private int size;
+
+	public IntQueue() {
+		this(256);
+	}
+
+	public IntQueue(int capacity) {
+		this.values = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Adds a value to the end of the queue
+	 *
+	 * @param value Value to add
+	 */
+	public void add(int value) {
+		if (this.size == this.values.length) {
+			this.grow();
+		}
+
+		this.values[(this.head + this.size) % this.values.length] = value;
+		this.size++;
+	}
+
+	/**
+	 * Removes a value from the start of the queue
+	 * The queue MUST not be empty
+	 *
+	 * @return Removed value
+	 */
+	public int poll() {
+		int value = this.values[this.head];
+
+		this.head = (this.head + 1) % this.values.length;
+		this.size--;
+
+		return value;
+	}
+
+	/**
+	 * Removes all values
+	 */
+	public void clear() {
+		this.head = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * @return Queue has no values
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * @return Amount of values in the queue
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Doubles the capacity, keeping the order
+	 */
+	private void grow() {
+		int[] values = new int[this.values.length * 2];
+
+		for (int i = 0; i < this.size; i++) {
+			values[i] = this.values[(this.head + i) % this.values.length];
+		}
+
+		this.values = values;
+		this.head = 0;
+	}
+}
\ No newline at end of file